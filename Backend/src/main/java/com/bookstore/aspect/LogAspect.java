@@ -1,7 +1,8 @@
 package com.bookstore.aspect;
 
 import com.bookstore.entity.OperationLog;
-import com.bookstore.repository.OperationLogRepository;
+import com.bookstore.service.OperationLogWriter;
+import com.bookstore.util.JwtPrincipal;
 import com.bookstore.util.JwtUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
@@ -14,14 +15,13 @@ import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.time.LocalDateTime;
-import java.util.Arrays;
 
 @Aspect
 @Component
 @RequiredArgsConstructor
 public class LogAspect {
 
-    private final OperationLogRepository logRepository;
+    private final OperationLogWriter logWriter;
     private final JwtUtils jwtUtils;
 
     // Intercept POST, PUT, DELETE methods in admin controllers
@@ -36,27 +36,32 @@ public class LogAspect {
             HttpServletRequest request = attributes.getRequest();
 
             OperationLog log = new OperationLog();
-            
-            // Get User Info from Token
-            String token = request.getHeader("Authorization");
-            if (token != null && token.startsWith("Bearer ")) {
-                token = token.substring(7);
-                try {
-                    Long userId = jwtUtils.getUserIdFromToken(token);
-                    log.setAdminId(userId);
-                    log.setUsername("Admin-" + userId); 
-                } catch (Exception e) {
-                    log.setUsername("Unknown");
+
+            // User id set by JwtInterceptor; /api/admin/auth/** bypasses it, so fall back to the token
+            Long userId = (Long) request.getAttribute("userId");
+            if (userId == null) {
+                String token = request.getHeader("Authorization");
+                if (token != null && token.startsWith("Bearer ")) {
+                    JwtPrincipal principal = jwtUtils.parseToken(token.substring(7));
+                    if (principal != null) {
+                        userId = principal.userId();
+                    } else {
+                        log.setUsername("Unknown");
+                    }
                 }
             }
+            if (userId != null) {
+                log.setAdminId(userId);
+                log.setUsername("Admin-" + userId);
+            }
 
             log.setAction(request.getMethod());
             log.setTarget(request.getRequestURI());
             log.setIp(request.getRemoteAddr());
-            log.setParams(Arrays.toString(joinPoint.getArgs()));
             log.setCreateTime(LocalDateTime.now());
 
-            logRepository.insert(log);
+            // Params are formatted and written asynchronously in batches
+            logWriter.submit(log, joinPoint.getArgs());
         } catch (Exception e) {
             e.printStackTrace();
         }
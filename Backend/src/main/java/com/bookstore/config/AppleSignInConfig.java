@@ -22,4 +22,19 @@ public class AppleSignInConfig {
      * Client ID - Bundle ID for iOS app
      */
     private String clientId;
+
+    /**
+     * Apple 公钥 (JWKS) 地址，测试时可指向本地模拟服务
+     */
+    private String keysUrl = "https://appleid.apple.com/auth/keys";
+
+    /**
+     * 遇到未知 kid 时立即重新拉取公钥的最小间隔 (毫秒)，防止伪造 kid 刷爆 Apple 接口
+     */
+    private long keysMinRefetchIntervalMs = 60_000;
+
+    /**
+     * 拉取公钥的连接 / 读取超时 (毫秒)
+     */
+    private int keysTimeoutMs = 3_000;
 }
@@ -1,6 +1,15 @@
 package com.bookstore.config;
 
+import com.bookstore.dto.ReaderDataDTO;
+import com.bookstore.service.SharedCacheStore;
+import com.bookstore.vo.BookVO;
+import com.bookstore.vo.ChapterVO;
+import com.github.benmanes.caffeine.cache.CacheLoader;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -8,84 +17,168 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
- * Caffeine 本地缓存配置
+ * Caffeine 本地缓存配置 (L1)，可选多节点共享的二级缓存 (L2, 见 TwoTierCache / cache-l2.type)
  *
- * 缓存策略:
- * - homeBooks: 首页书籍列表，TTL 5分钟，最大500条
+ * 每个缓存使用独立策略（见 CachePolicyConfig，可通过 cache-policy.* 覆盖），默认:
  * - bookDetails: 书籍详情，TTL 10分钟，最大1000条
- * - chapters: 章节列表，TTL 10分钟，最大500条
- * - chapterContent: 章节内容，TTL 30分钟，最大200条
+ * - chapters: 章节目录，TTL 10分钟，最大500条
+ * - chapterContent: 章节内容，TTL 30分钟，按估算字节数限制 64MB
+ * - readerData: 阅读页数据，TTL 10分钟，最大500条
+ * - chapterVersions: 章节 updatedAt 等校验信息 (ETag)，TTL 30分钟，最大20000条
+ * 首页书架与书籍搜索不使用 Spring Cache，分别由 HomeFeedEngine / BookSearchIndex 在内存中维护
+ *
+ * bookDetails / chapters / readerData 默认在写入 8 分钟后被再次读取时于后台刷新 (refresh-ahead)，
+ * 刷新期间返回旧值；方法均为 @Cacheable(sync = true)，同一 key 的并发未命中只执行一次加载。
+ *
+ * 启用 L2 后 bookDetails / chapters / chapterContent / readerData 在本地未命中时先查 L2 再查数据库，
+ * 新启动或扩容的节点可直接从 L2 预热。
+ *
+ * 实际生效的配置可通过 GET /api/admin/system/caches 查看
  */
+@Slf4j
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
-    public static final String CACHE_HOME_BOOKS = "homeBooks";
     public static final String CACHE_BOOK_DETAILS = "bookDetails";
     public static final String CACHE_CHAPTERS = "chapters";
     public static final String CACHE_CHAPTER_CONTENT = "chapterContent";
     public static final String CACHE_READER_DATA = "readerData";
+    public static final String CACHE_CHAPTER_VERSIONS = "chapterVersions";
+
+    public static final List<String> CACHE_NAMES = List.of(
+        CACHE_BOOK_DETAILS,
+        CACHE_CHAPTERS,
+        CACHE_CHAPTER_CONTENT,
+        CACHE_READER_DATA,
+        CACHE_CHAPTER_VERSIONS
+    );
+
+    /**
+     * 进入二级缓存的值类型；chapterVersions 不在其中，只使用本地缓存
+     */
+    private static final Map<String, CacheValueCodec> SHARED_CODECS = Map.of(
+        CACHE_BOOK_DETAILS, CacheValueCodec.json(BookVO.class),
+        CACHE_CHAPTERS, CacheValueCodec.jsonList(ChapterVO.class),
+        CACHE_CHAPTER_CONTENT, CacheValueCodec.chapter(),
+        CACHE_READER_DATA, CacheValueCodec.json(ReaderDataDTO.class)
+    );
+
+    private static final Duration DEFAULT_SHARED_TTL = Duration.ofMinutes(10);
+
+    private static final int REFRESH_THREADS = 4;
+
+    /**
+     * 后台刷新线程池；Caffeine 对同一 key 只会提交一个刷新任务，排队数不超过缓存条目数。
+     * 不注册为 Bean，避免替换 Spring Boot 默认的 applicationTaskExecutor
+     */
+    private final ExecutorService refreshExecutor = Executors.newFixedThreadPool(REFRESH_THREADS, new ThreadFactory() {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "cache-refresh-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
 
     @Bean
     @Primary
-    public CacheManager cacheManager() {
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    public CacheManager cacheManager(CachePolicyConfig cachePolicyConfig,
+                                     ObjectProvider<SharedCacheStore> sharedCacheStore,
+                                     CacheLoaderRegistry cacheLoaderRegistry,
+                                     CacheKeyHitTracker cacheKeyHitTracker) {
+        SharedCacheStore sharedStore = sharedCacheStore.getIfAvailable();
+        CaffeineCacheManager cacheManager = new BookstoreCacheManager(cachePolicyConfig, sharedStore, cacheKeyHitTracker);
+        log.info("二级缓存: {}", sharedStore == null ? "未启用" : sharedStore.getClass().getSimpleName());
         cacheManager.setCaffeine(defaultCaffeine());
-        cacheManager.setCacheNames(java.util.List.of(
-            CACHE_HOME_BOOKS,
-            CACHE_BOOK_DETAILS,
-            CACHE_CHAPTERS,
-            CACHE_CHAPTER_CONTENT,
-            CACHE_READER_DATA
-        ));
+        cacheManager.setCacheNames(CACHE_NAMES);
+        // 按缓存名注册独立策略，覆盖默认配置
+        for (String name : CACHE_NAMES) {
+            CachePolicyConfig.Policy policy = cachePolicyConfig.forCache(name);
+            cacheManager.registerCustomCache(name,
+                    buildCache(name, policy, cacheLoaderRegistry));
+            log.info("缓存 {} 策略: TTL={}, 刷新={}, 最大条目数={}, 最大字节数={}", name, policy.getExpireAfterWrite(),
+                    policy.getRefreshAfterWrite(), policy.getMaximumSize(), policy.getMaximumWeightBytes());
+        }
         return cacheManager;
     }
 
-    /**
-     * 首页书籍列表缓存 - 短TTL，更新频繁
-     */
-    @Bean
-    public Caffeine<Object, Object> homeBooksCaffeine() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(5, TimeUnit.MINUTES)
-                .maximumSize(500)
-                .recordStats();
+    @PreDestroy
+    public void shutdownRefreshExecutor() {
+        refreshExecutor.shutdownNow();
     }
 
     /**
-     * 书籍详情缓存 - 中等TTL
+     * 按策略构建缓存
+     * - 配置了 maximumWeightBytes 时按估算内存淘汰
+     * - 配置了 refreshAfterWrite 时构建为 LoadingCache，热点条目过期前在后台刷新，期间返回旧值
      */
-    @Bean
-    public Caffeine<Object, Object> bookDetailsCaffeine() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .maximumSize(1000)
-                .recordStats();
+    private com.github.benmanes.caffeine.cache.Cache<Object, Object> buildCache(
+            String name, CachePolicyConfig.Policy policy, CacheLoaderRegistry registry) {
+        Caffeine<Object, Object> builder = buildCaffeine(policy);
+        if (policy.getRefreshAfterWrite() == null) {
+            return builder.build();
+        }
+        CacheLoader<Object, Object> loader = key -> registry.load(name, key);
+        return builder.refreshAfterWrite(policy.getRefreshAfterWrite())
+                .executor(refreshExecutor)
+                .build(loader);
     }
 
-    /**
-     * 章节列表缓存
-     */
-    @Bean
-    public Caffeine<Object, Object> chaptersCaffeine() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(10, TimeUnit.MINUTES)
-                .maximumSize(500)
-                .recordStats();
+    private Caffeine<Object, Object> buildCaffeine(CachePolicyConfig.Policy policy) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder().recordStats();
+        if (policy.getExpireAfterWrite() != null) {
+            builder.expireAfterWrite(policy.getExpireAfterWrite());
+        }
+        if (policy.getMaximumWeightBytes() != null) {
+            builder.maximumWeight(policy.getMaximumWeightBytes())
+                    .weigher(new CacheWeigher());
+        } else if (policy.getMaximumSize() != null) {
+            builder.maximumSize(policy.getMaximumSize());
+        }
+        return builder;
     }
 
     /**
-     * 章节内容缓存 - 较长TTL，内容不常变
+     * 所有缓存按 key 记录命中次数；启用 L2 时为配置了序列化方式的缓存包装 L2，其余缓存保持纯本地
      */
-    @Bean
-    public Caffeine<Object, Object> chapterContentCaffeine() {
-        return Caffeine.newBuilder()
-                .expireAfterWrite(30, TimeUnit.MINUTES)
-                .maximumSize(200)
-                .recordStats();
+    private static class BookstoreCacheManager extends CaffeineCacheManager {
+
+        private final CachePolicyConfig cachePolicyConfig;
+        private final SharedCacheStore sharedStore;
+        private final CacheKeyHitTracker hitTracker;
+
+        BookstoreCacheManager(CachePolicyConfig cachePolicyConfig, SharedCacheStore sharedStore,
+                              CacheKeyHitTracker hitTracker) {
+            this.cachePolicyConfig = cachePolicyConfig;
+            this.sharedStore = sharedStore;
+            this.hitTracker = hitTracker;
+        }
+
+        @Override
+        protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+            CacheValueCodec codec = SHARED_CODECS.get(name);
+            if (sharedStore == null || codec == null) {
+                return new InstrumentedCaffeineCache(name, cache, isAllowNullValues(), hitTracker);
+            }
+            CachePolicyConfig.Policy policy = cachePolicyConfig.forCache(name);
+            Duration ttl = policy != null && policy.getExpireAfterWrite() != null
+                    ? policy.getExpireAfterWrite() : DEFAULT_SHARED_TTL;
+            // 后台刷新的结果只进入 L1 (见 CacheLoaderRegistry)
+            return new TwoTierCache(name, cache, isAllowNullValues(), hitTracker, sharedStore, codec, ttl);
+        }
     }
 
     /**
@@ -0,0 +1,63 @@
+package com.bookstore.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按 key 统计缓存命中次数，用于查看热点 key
+ *
+ * 统计窗口默认 10 分钟，窗口结束时清零；每个缓存最多跟踪 MAX_KEYS_PER_CACHE 个 key，
+ * 超出后新 key 在本窗口内不再计数，避免统计本身占用过多内存。
+ */
+@Component
+public class CacheKeyHitTracker {
+
+    private static final int MAX_KEYS_PER_CACHE = 10_000;
+
+    private final Map<String, Map<Object, LongAdder>> hits = new ConcurrentHashMap<>();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    public void recordHit(String cacheName, Object key) {
+        Map<Object, LongAdder> counters = hits.computeIfAbsent(cacheName, k -> new ConcurrentHashMap<>());
+        LongAdder adder = counters.get(key);
+        if (adder == null) {
+            if (counters.size() >= MAX_KEYS_PER_CACHE) {
+                return;
+            }
+            adder = counters.computeIfAbsent(key, k -> new LongAdder());
+        }
+        adder.increment();
+    }
+
+    /**
+     * Keys with the most hits in the current window, most hit first
+     */
+    public List<Map.Entry<Object, Long>> topKeys(String cacheName, int limit) {
+        Map<Object, LongAdder> counters = hits.get(cacheName);
+        if (counters == null) {
+            return List.of();
+        }
+        return counters.entrySet().stream()
+                .map(entry -> (Map.Entry<Object, Long>) new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().sum()))
+                .sorted(Map.Entry.<Object, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .toList();
+    }
+
+    public long getWindowStart() {
+        return windowStart;
+    }
+
+    @Scheduled(fixedDelayString = "${cache-stats.key-window-ms:600000}")
+    public void resetWindow() {
+        hits.clear();
+        windowStart = System.currentTimeMillis();
+    }
+}
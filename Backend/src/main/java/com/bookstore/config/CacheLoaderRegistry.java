@@ -0,0 +1,38 @@
+package com.bookstore.config;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * 缓存加载函数注册表，供 refresh-ahead 后台刷新使用
+ *
+ * 持有 @Cacheable 方法的服务在启动时注册与方法体相同的加载逻辑 (不经过缓存)，
+ * 条目写入超过 refreshAfterWrite 后再次被读取时，Caffeine 在后台线程调用这里的加载函数，
+ * 刷新完成前继续返回旧值。
+ * 刷新结果只进入本地缓存，不写入 L2：刷新期间发生的失效会让 Caffeine 丢弃这次结果，
+ * 而此时写入 L2 的旧值会在整个集群中保留到过期。
+ */
+@Component
+public class CacheLoaderRegistry {
+
+    private final Map<String, Function<Object, Object>> loaders = new ConcurrentHashMap<>();
+
+    public void register(String cacheName, Function<Object, Object> loader) {
+        loaders.put(cacheName, loader);
+    }
+
+    public boolean hasLoader(String cacheName) {
+        return loaders.containsKey(cacheName);
+    }
+
+    public Object load(String cacheName, Object key) {
+        Function<Object, Object> loader = loaders.get(cacheName);
+        if (loader == null) {
+            throw new IllegalStateException("No loader registered for cache " + cacheName);
+        }
+        return loader.apply(key);
+    }
+}
@@ -0,0 +1,61 @@
+package com.bookstore.config;
+
+import com.bookstore.service.SubscriptionEntitlementCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 将所有 Caffeine 缓存的统计注册到 Micrometer (cache.gets / cache.evictions / cache.size ...)
+ * - CacheConfig 中的缓存，标签与 Spring Boot 自动注册的一致 (cache, cache.manager)，不会重复
+ * - 不经过 CacheManager 的订阅权益缓存
+ * - 二级缓存的命中 / 未命中 / 错误次数: cache.l2.gets{cache, result}、cache.l2.errors{cache}
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CacheMetricsBinder {
+
+    private final CacheManager cacheManager;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
+    private final MeterRegistry meterRegistry;
+
+    @EventListener(ApplicationStartedEvent.class)
+    public void bindCaches() {
+        Tags managerTags = Tags.of("cache.manager", "cacheManager");
+        for (String name : CacheConfig.CACHE_NAMES) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            CaffeineCacheMetrics.monitor(meterRegistry, caffeineCache.getNativeCache(), name, managerTags);
+            if (caffeineCache instanceof TwoTierCache twoTierCache) {
+                bindSharedTier(name, twoTierCache);
+            }
+        }
+        CaffeineCacheMetrics.monitor(meterRegistry, subscriptionEntitlementCache.getNativeCache(), SubscriptionEntitlementCache.CACHE_NAME);
+        log.info("缓存统计已注册到 Micrometer: {} + {}", CacheConfig.CACHE_NAMES, SubscriptionEntitlementCache.CACHE_NAME);
+    }
+
+    private void bindSharedTier(String name, TwoTierCache cache) {
+        FunctionCounter.builder("cache.l2.gets", cache, TwoTierCache::getSharedHits)
+                .tags("cache", name, "result", "hit")
+                .description("Shared L2 lookups after an L1 miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.l2.gets", cache, TwoTierCache::getSharedMisses)
+                .tags("cache", name, "result", "miss")
+                .description("Shared L2 lookups after an L1 miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("cache.l2.errors", cache, TwoTierCache::getSharedErrors)
+                .tags("cache", name)
+                .description("Failed shared L2 reads and writes")
+                .register(meterRegistry);
+    }
+}
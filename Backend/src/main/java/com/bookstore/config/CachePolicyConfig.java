@@ -0,0 +1,49 @@
+package com.bookstore.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * 各缓存的独立策略配置 (cache-policy.*)
+ * maximumWeightBytes 不为空时按估算字节数淘汰，否则按条目数 maximumSize 淘汰
+ * refreshAfterWrite 小于 expireAfterWrite 时，热点条目在过期前由后台刷新，刷新期间继续返回旧值
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cache-policy")
+public class CachePolicyConfig {
+    private Policy bookDetails = new Policy(Duration.ofMinutes(10), 1000L, null, Duration.ofMinutes(8));
+    private Policy chapters = new Policy(Duration.ofMinutes(10), 500L, null, Duration.ofMinutes(8));
+    private Policy chapterContent = new Policy(Duration.ofMinutes(30), null, 64L * 1024 * 1024, null); // 64MB, 正文只在编辑时变化
+    private Policy readerData = new Policy(Duration.ofMinutes(10), 500L, null, Duration.ofMinutes(8));
+    private Policy chapterVersions = new Policy(Duration.ofMinutes(30), 20000L, null, null);
+
+    public Policy forCache(String cacheName) {
+        return switch (cacheName) {
+            case CacheConfig.CACHE_BOOK_DETAILS -> bookDetails;
+            case CacheConfig.CACHE_CHAPTERS -> chapters;
+            case CacheConfig.CACHE_CHAPTER_CONTENT -> chapterContent;
+            case CacheConfig.CACHE_READER_DATA -> readerData;
+            case CacheConfig.CACHE_CHAPTER_VERSIONS -> chapterVersions;
+            default -> null;
+        };
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Policy {
+        private Duration expireAfterWrite;
+        private Long maximumSize;
+        private Long maximumWeightBytes;
+        /**
+         * 写入超过该时间后再次读取时在后台刷新 (需注册 CacheLoaderRegistry 加载函数)，为空则不刷新
+         */
+        private Duration refreshAfterWrite;
+    }
+}
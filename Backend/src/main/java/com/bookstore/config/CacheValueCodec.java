@@ -0,0 +1,223 @@
+package com.bookstore.config;
+
+import com.bookstore.vo.ChapterVO;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * 二级缓存值的序列化
+ *
+ * 格式: 1 字节标记 (是否压缩) + 负载。超过 COMPRESS_THRESHOLD 的负载使用 Deflate 压缩，
+ * 章节正文 (中文文本) 压缩后通常只有 UTF-8 原文的一半左右。
+ * - chapter(): 章节内容使用紧凑的二进制格式，不写字段名也不做 JSON 转义
+ * - json(type): 其他缓存值使用 JSON，反序列化为声明的类型
+ */
+public abstract class CacheValueCodec {
+
+    private static final int COMPRESS_THRESHOLD = 1024;
+    private static final byte PLAIN = 0;
+    private static final byte DEFLATED = 1;
+
+    private static final ObjectMapper MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .build();
+
+    public static CacheValueCodec json(Class<?> valueType) {
+        return new JsonCodec(MAPPER.constructType(valueType));
+    }
+
+    public static CacheValueCodec jsonList(Class<?> elementType) {
+        return new JsonCodec(MAPPER.getTypeFactory().constructCollectionType(List.class, elementType));
+    }
+
+    public static CacheValueCodec chapter() {
+        return new ChapterCodec();
+    }
+
+    public byte[] encode(Object value) {
+        try {
+            return pack(write(value));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public Object decode(byte[] bytes) {
+        try {
+            return read(unpack(bytes));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    protected abstract byte[] write(Object value) throws IOException;
+
+    protected abstract Object read(byte[] payload) throws IOException;
+
+    private static byte[] pack(byte[] payload) {
+        if (payload.length < COMPRESS_THRESHOLD) {
+            byte[] out = new byte[payload.length + 1];
+            out[0] = PLAIN;
+            System.arraycopy(payload, 0, out, 1, payload.length);
+            return out;
+        }
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(payload.length / 2 + 16);
+            out.write(DEFLATED);
+            byte[] buffer = new byte[8192];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] unpack(byte[] bytes) throws IOException {
+        if (bytes.length == 0) {
+            throw new IOException("Empty cache value");
+        }
+        if (bytes[0] == PLAIN) {
+            return Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(bytes, 1, bytes.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Truncated cache value");
+                }
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupted cache value", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static class JsonCodec extends CacheValueCodec {
+
+        private final JavaType type;
+
+        JsonCodec(JavaType type) {
+            this.type = type;
+        }
+
+        @Override
+        protected byte[] write(Object value) throws IOException {
+            return MAPPER.writeValueAsBytes(value);
+        }
+
+        @Override
+        protected Object read(byte[] payload) throws IOException {
+            return MAPPER.readValue(payload, type);
+        }
+    }
+
+    /**
+     * ChapterVO: id, bookId, orderNum, isFree, title, content (canAccess 不进入缓存)
+     */
+    private static class ChapterCodec extends CacheValueCodec {
+
+        private static final byte VERSION = 1;
+
+        @Override
+        protected byte[] write(Object value) throws IOException {
+            ChapterVO chapter = (ChapterVO) value;
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(
+                    64 + 3 * (chapter.getContent() == null ? 0 : chapter.getContent().length()));
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeByte(VERSION);
+            writeLong(out, chapter.getId());
+            writeLong(out, chapter.getBookId());
+            out.writeBoolean(chapter.getOrderNum() != null);
+            if (chapter.getOrderNum() != null) {
+                out.writeInt(chapter.getOrderNum());
+            }
+            out.writeByte(chapter.getIsFree() == null ? -1 : (chapter.getIsFree() ? 1 : 0));
+            writeString(out, chapter.getTitle());
+            writeString(out, chapter.getContent());
+            out.flush();
+            return bytes.toByteArray();
+        }
+
+        @Override
+        protected Object read(byte[] payload) throws IOException {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+            if (in.readByte() != VERSION) {
+                throw new IOException("Unsupported chapter encoding");
+            }
+            ChapterVO chapter = new ChapterVO();
+            chapter.setId(readLong(in));
+            chapter.setBookId(readLong(in));
+            if (in.readBoolean()) {
+                chapter.setOrderNum(in.readInt());
+            }
+            byte isFree = in.readByte();
+            chapter.setIsFree(isFree < 0 ? null : isFree == 1);
+            chapter.setTitle(readString(in));
+            chapter.setContent(readString(in));
+            return chapter;
+        }
+
+        private static void writeLong(DataOutputStream out, Long value) throws IOException {
+            out.writeBoolean(value != null);
+            if (value != null) {
+                out.writeLong(value);
+            }
+        }
+
+        private static Long readLong(DataInputStream in) throws IOException {
+            return in.readBoolean() ? in.readLong() : null;
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            if (value == null) {
+                out.writeInt(-1);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(utf8.length);
+            out.write(utf8);
+        }
+
+        private static String readString(DataInputStream in) throws IOException {
+            int length = in.readInt();
+            if (length < 0) {
+                return null;
+            }
+            byte[] utf8 = new byte[length];
+            in.readFully(utf8);
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.bookstore.config;
+
+import com.bookstore.dto.ReaderDataDTO;
+import com.bookstore.vo.ChapterVO;
+import com.github.benmanes.caffeine.cache.Weigher;
+
+import java.util.Collection;
+
+/**
+ * 缓存值的堆内存估算 (字节)，用于按内存预算淘汰
+ * 字符串按每字符 2 字节估算（中文内容为 UTF-16），另加固定对象开销
+ */
+public class CacheWeigher implements Weigher<Object, Object> {
+
+    private static final int OBJECT_OVERHEAD = 64;
+    private static final int DEFAULT_WEIGHT = 256;
+
+    @Override
+    public int weigh(Object key, Object value) {
+        return (int) Math.min(Integer.MAX_VALUE, estimate(value));
+    }
+
+    public static long estimate(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof ChapterVO chapter) {
+            return 2L * OBJECT_OVERHEAD + 2L * (length(chapter.getContent()) + length(chapter.getTitle()));
+        }
+        if (value instanceof ReaderDataDTO readerData) {
+            long size = OBJECT_OVERHEAD + DEFAULT_WEIGHT;
+            if (readerData.getChapters() != null) {
+                size += estimate(readerData.getChapters());
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = OBJECT_OVERHEAD;
+            for (Object item : collection) {
+                size += estimate(item);
+            }
+            return size;
+        }
+        return DEFAULT_WEIGHT;
+    }
+
+    private static int length(String s) {
+        return s == null ? 0 : s.length();
+    }
+}
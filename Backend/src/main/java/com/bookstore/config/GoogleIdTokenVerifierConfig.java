@@ -0,0 +1,43 @@
+package com.bookstore.config;
+
+import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.gson.GsonFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Google ID Token 验证器
+ *
+ * 全局共享一个 GoogleIdTokenVerifier，复用 HTTP transport 与已下载的 Google 公钥证书，
+ * 证书由 GooglePublicKeysRefresher 在过期前后台刷新，登录请求无需等待证书下载。
+ */
+@Configuration
+public class GoogleIdTokenVerifierConfig {
+
+    @Bean
+    public GooglePublicKeysManager googlePublicKeysManager() {
+        return new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .build();
+    }
+
+    @Bean
+    public GoogleIdTokenVerifier googleIdTokenVerifier(GooglePublicKeysManager googlePublicKeysManager,
+                                                       GoogleSignInConfig googleConfig) {
+        // Web, Android and iOS clients all issue ID tokens for this backend
+        List<String> audience = Stream.of(
+                        googleConfig.getWebClientId(),
+                        googleConfig.getAndroidClientId(),
+                        googleConfig.getIosClientId())
+                .filter(StringUtils::hasText)
+                .toList();
+        return new GoogleIdTokenVerifier.Builder(googlePublicKeysManager)
+                .setAudience(audience)
+                .build();
+    }
+}
@@ -0,0 +1,47 @@
+package com.bookstore.config;
+
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Caffeine 本地缓存，额外按 key 记录命中次数 (见 CacheKeyHitTracker)
+ * 汇总的命中 / 未命中 / 加载统计由 Caffeine recordStats 提供
+ */
+public class InstrumentedCaffeineCache extends CaffeineCache {
+
+    private final CacheKeyHitTracker hitTracker;
+
+    public InstrumentedCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                                     boolean allowNullValues, CacheKeyHitTracker hitTracker) {
+        super(name, cache, allowNullValues);
+        this.hitTracker = hitTracker;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        // getIfPresent: a LoadingCache must not load here, misses are handled by the caller
+        Object value = getNativeCache().getIfPresent(key);
+        if (value != null) {
+            recordHit(key);
+        }
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        boolean[] loaded = {false};
+        T value = super.get(key, () -> {
+            loaded[0] = true;
+            return valueLoader.call();
+        });
+        if (!loaded[0]) {
+            recordHit(key);
+        }
+        return value;
+    }
+
+    protected void recordHit(Object key) {
+        hitTracker.recordHit(getName(), key);
+    }
+}
@@ -1,14 +1,17 @@
 package com.bookstore.config;
 
+import com.bookstore.common.Result;
+import com.bookstore.util.JwtPrincipal;
 import com.bookstore.util.JwtUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import java.util.Arrays;
-import java.util.List;
+import java.io.IOException;
 
 @Component
 public class JwtInterceptor implements HandlerInterceptor {
@@ -16,20 +19,19 @@ public class JwtInterceptor implements HandlerInterceptor {
     @Autowired
     private JwtUtils jwtUtils;
 
-    // 分销商可访问的 API 路径前缀
-    private static final List<String> DISTRIBUTOR_ALLOWED_PATHS = Arrays.asList(
-        "/api/admin/auth/user-info",
-        "/api/admin/auth/logout",
-        "/api/admin/auth/verify",
-        "/api/admin/dashboard",
-        "/api/admin/books",
-        "/api/admin/subscription",
-        "/api/admin/categories",
-        "/api/admin/tags",
-        "/api/admin/languages",
-        "/api/admin/covers",
-        "/api/admin/passcodes"  // 口令管理（书籍内的口令功能）
-    );
+    @Autowired
+    private RouteAuthConfig routeAuthConfig;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // 路由鉴权策略，启动时由 route-auth 路由表编译
+    private RoutePolicyTrie routePolicies;
+
+    @PostConstruct
+    public void compileRoutes() {
+        this.routePolicies = RoutePolicyTrie.compile(routeAuthConfig.getRoutes());
+    }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
@@ -38,46 +40,33 @@ public class JwtInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        String uri = request.getRequestURI();
-
-        // Check if this is an optional auth path (public but benefits from user context)
-        boolean isOptionalAuthPath = uri.startsWith("/api/v1/books");
+        // Longest matching route; unmatched paths just require a valid token
+        RouteAuthConfig.Route route = routePolicies.resolve(request.getRequestURI());
+        boolean isOptionalAuthPath = route != null && route.isOptionalAuth();
 
         String authHeader = request.getHeader("Authorization");
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
-            if (jwtUtils.validateToken(token)) {
-                String role = jwtUtils.getRoleFromToken(token);
-                Long userId = jwtUtils.getUserIdFromToken(token);
-
-                // 处理 admin 路由的权限检查
-                if (uri.startsWith("/api/admin")) {
-                    if ("admin".equals(role)) {
-                        // 管理员可以访问所有 admin 路由
-                    } else if ("distributor".equals(role)) {
-                        // 分销商只能访问特定路径
-                        boolean allowed = DISTRIBUTOR_ALLOWED_PATHS.stream()
-                                .anyMatch(uri::startsWith);
-                        if (!allowed) {
-                            response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                            response.setContentType("application/json;charset=UTF-8");
-                            response.getWriter().write("{\"code\": 403, \"message\": \"没有权限访问此功能\", \"data\": null}");
-                            return false;
-                        }
-                        // 将 distributorId 存入 request attribute，供后续使用
-                        request.setAttribute("distributorId", userId);
-                    } else {
-                        // 其他角色不能访问 admin 路由
-                        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
-                        response.setContentType("application/json;charset=UTF-8");
-                        response.getWriter().write("{\"code\": 403, \"message\": \"Forbidden\", \"data\": null}");
+            // Verify once, then read everything from the principal
+            JwtPrincipal principal = jwtUtils.parseToken(token);
+            if (principal != null) {
+                String role = principal.role();
+
+                if (route != null) {
+                    if (!route.getRoles().isEmpty() && !route.getRoles().contains(role)) {
+                        writeError(response, HttpServletResponse.SC_FORBIDDEN, route.getForbiddenMessage());
                         return false;
                     }
+                    for (RouteAuthConfig.Attribute attribute : route.getAttributes()) {
+                        if (attribute.getRole() == null || attribute.getRole().equals(role)) {
+                            request.setAttribute(attribute.getName(), valueOf(principal, attribute.getSource()));
+                        }
+                    }
                 }
 
                 // Store user info in request attribute for controller access
-                request.setAttribute("userId", userId);
-                request.setAttribute("username", jwtUtils.getUsernameFromToken(token));
+                request.setAttribute("userId", principal.userId());
+                request.setAttribute("username", principal.username());
                 request.setAttribute("role", role);
                 return true;
             }
@@ -88,9 +77,25 @@ public class JwtInterceptor implements HandlerInterceptor {
             return true;
         }
 
-        response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-        response.setContentType("application/json;charset=UTF-8");
-        response.getWriter().write("{\"code\": 401, \"message\": \"Unauthorized\", \"data\": null}");
+        writeError(response, HttpServletResponse.SC_UNAUTHORIZED, "Unauthorized");
         return false;
     }
+
+    private static Object valueOf(JwtPrincipal principal, String source) {
+        return switch (source) {
+            case "userId" -> principal.userId();
+            case "username" -> principal.username();
+            case "role" -> principal.role();
+            default -> null; // rejected by RoutePolicyTrie.compile
+        };
+    }
+
+    /**
+     * Same body as controller errors, serialized with the application ObjectMapper so messages are escaped
+     */
+    private void writeError(HttpServletResponse response, int status, String message) throws IOException {
+        response.setStatus(status);
+        response.setContentType("application/json;charset=UTF-8");
+        objectMapper.writeValue(response.getWriter(), Result.error(status, message));
+    }
 }
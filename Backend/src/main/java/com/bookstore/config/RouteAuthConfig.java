@@ -0,0 +1,99 @@
+package com.bookstore.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 路由鉴权策略表 (route-auth.*)
+ *
+ * 每条路由按路径前缀匹配，取最长匹配的前缀生效，启动时编译为前缀树 (RoutePolicyTrie)。
+ * 未匹配任何路由的请求需要登录，角色不限。
+ * 新增分销商可访问的路由只需在此表 (或 application.yml) 中增加一项，无需修改 JwtInterceptor。
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "route-auth")
+public class RouteAuthConfig {
+
+    public static final String ROLE_ADMIN = "admin";
+    public static final String ROLE_DISTRIBUTOR = "distributor";
+
+    private List<Route> routes = defaultRoutes();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Route {
+        /**
+         * 路径前缀，按字符匹配 (与 String.startsWith 一致)
+         */
+        private String prefix;
+        /**
+         * 可选认证：无令牌或令牌无效时仍放行，有效令牌时填充用户信息
+         */
+        private boolean optionalAuth;
+        /**
+         * 允许访问的角色，为空表示任意已登录用户
+         */
+        private List<String> roles = new ArrayList<>();
+        /**
+         * 角色不满足时返回的 403 消息
+         */
+        private String forbiddenMessage = "Forbidden";
+        /**
+         * 额外写入 request attribute 的字段
+         */
+        private List<Attribute> attributes = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Attribute {
+        /**
+         * request attribute 名称
+         */
+        private String name;
+        /**
+         * 取值来源：userId / username / role
+         */
+        private String source;
+        /**
+         * 仅对该角色写入，为空表示所有角色
+         */
+        private String role;
+    }
+
+    private static List<Route> defaultRoutes() {
+        List<Route> routes = new ArrayList<>();
+        // Public pages that benefit from user context when a token is present
+        routes.add(new Route("/api/v1/books", true, new ArrayList<>(), "Forbidden", new ArrayList<>()));
+        routes.add(new Route("/api/admin", false, new ArrayList<>(List.of(ROLE_ADMIN)),
+                "没有权限访问此功能", new ArrayList<>()));
+
+        // 分销商可访问的 admin 路由，distributorId 供后续数据隔离使用
+        for (String prefix : List.of(
+                "/api/admin/auth/user-info",
+                "/api/admin/auth/logout",
+                "/api/admin/auth/verify",
+                "/api/admin/dashboard",
+                "/api/admin/books",
+                "/api/admin/subscription",
+                "/api/admin/categories",
+                "/api/admin/tags",
+                "/api/admin/languages",
+                "/api/admin/covers",
+                "/api/admin/passcodes")) { // 口令管理（书籍内的口令功能）
+            routes.add(new Route(prefix, false, new ArrayList<>(List.of(ROLE_ADMIN, ROLE_DISTRIBUTOR)),
+                    "没有权限访问此功能",
+                    new ArrayList<>(List.of(new Attribute("distributorId", "userId", ROLE_DISTRIBUTOR)))));
+        }
+        return routes;
+    }
+}
@@ -0,0 +1,73 @@
+package com.bookstore.config;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 路由策略前缀树
+ *
+ * 由 RouteAuthConfig 的路由表编译而成，按字符逐级匹配请求路径，
+ * 返回最长匹配前缀的策略，查找代价与路径长度成正比，与路由数量无关。
+ * 编译完成后只读，可被多线程并发查询。
+ */
+public final class RoutePolicyTrie {
+
+    /**
+     * Principal fields that may be copied into request attributes
+     */
+    public static final Set<String> ATTRIBUTE_SOURCES = Set.of("userId", "username", "role");
+
+    private final Node root = new Node();
+
+    private RoutePolicyTrie() {
+    }
+
+    /**
+     * Compile routes into a trie; a later route with the same prefix replaces the earlier one
+     */
+    public static RoutePolicyTrie compile(List<RouteAuthConfig.Route> routes) {
+        RoutePolicyTrie trie = new RoutePolicyTrie();
+        for (RouteAuthConfig.Route route : routes) {
+            if (route.getPrefix() == null || route.getPrefix().isEmpty()) {
+                throw new IllegalArgumentException("route-auth 路由前缀不能为空");
+            }
+            for (RouteAuthConfig.Attribute attribute : route.getAttributes()) {
+                if (!ATTRIBUTE_SOURCES.contains(attribute.getSource())) {
+                    throw new IllegalArgumentException("route-auth 未知的属性来源: " + attribute.getSource());
+                }
+            }
+            Node node = trie.root;
+            String prefix = route.getPrefix();
+            for (int i = 0; i < prefix.length(); i++) {
+                node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+            }
+            node.route = route;
+        }
+        return trie;
+    }
+
+    /**
+     * Route with the longest prefix of the path, or null if none matches
+     */
+    public RouteAuthConfig.Route resolve(String path) {
+        RouteAuthConfig.Route matched = null;
+        Node node = root;
+        for (int i = 0; i < path.length(); i++) {
+            node = node.children.get(path.charAt(i));
+            if (node == null) {
+                break;
+            }
+            if (node.route != null) {
+                matched = node.route;
+            }
+        }
+        return matched;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private RouteAuthConfig.Route route;
+    }
+}
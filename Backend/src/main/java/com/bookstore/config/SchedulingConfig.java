@@ -0,0 +1,54 @@
+package com.bookstore.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskSchedulerBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * 定时任务线程池
+ *
+ * - taskScheduler: 默认线程池 (spring.task.scheduling.*)，运行缓存失效轮询、计数 / 日志批量写出等短任务
+ * - backgroundTaskScheduler: 网络请求 (Apple / Google 公钥)、全表对账、首页 / 搜索索引重建等耗时任务，
+ *   通过 @Scheduled(scheduler = SchedulingConfig.BACKGROUND_SCHEDULER) 指定，
+ *   避免慢任务占用默认线程池，使缓存失效轮询和批量写出的延迟保持稳定
+ */
+@Configuration
+public class SchedulingConfig {
+
+    public static final String BACKGROUND_SCHEDULER = "backgroundTaskScheduler";
+
+    /**
+     * 声明了其他 TaskScheduler 后 Spring Boot 不再自动创建默认线程池，这里按 spring.task.scheduling.* 创建
+     */
+    @Bean
+    @Primary
+    public ThreadPoolTaskScheduler taskScheduler(ThreadPoolTaskSchedulerBuilder builder) {
+        return builder.build();
+    }
+
+    @Bean(name = BACKGROUND_SCHEDULER)
+    public ThreadPoolTaskScheduler backgroundTaskScheduler(
+            @Value("${background-scheduling.pool-size:3}") int poolSize) {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(poolSize);
+        scheduler.setThreadNamePrefix("background-scheduling-");
+        return scheduler;
+    }
+
+    /**
+     * 线程池调度器本身也是 Executor，会使 Spring Boot 跳过默认的 applicationTaskExecutor (MVC 异步请求使用)，
+     * 这里按 spring.task.execution.* 显式创建
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
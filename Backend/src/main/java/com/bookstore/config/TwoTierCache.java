@@ -0,0 +1,166 @@
+package com.bookstore.config;
+
+import com.bookstore.service.SharedCacheStore;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 两级缓存：本地 Caffeine (L1) + 多节点共享存储 (L2)
+ *
+ * - 读取: L1 未命中时先查 L2，命中则回填 L1；L2 也未命中才执行加载方法 (查数据库)，结果同时写入两级
+ * - 清除: evict / clear 同时清除两级；收到其他节点的失效广播时同样清除两级，
+ *   覆盖本节点在发起节点清除 L2 之后才写回的旧值
+ * - L2 读写失败只记录日志并按未命中处理，不影响请求
+ */
+@Slf4j
+public class TwoTierCache extends InstrumentedCaffeineCache {
+
+    private final SharedCacheStore sharedStore;
+    private final CacheValueCodec codec;
+    private final Duration sharedTtl;
+
+    private final LongAdder sharedHits = new LongAdder();
+    private final LongAdder sharedMisses = new LongAdder();
+    private final LongAdder sharedErrors = new LongAdder();
+
+    public TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache,
+                        boolean allowNullValues, CacheKeyHitTracker hitTracker, SharedCacheStore sharedStore,
+                        CacheValueCodec codec, Duration sharedTtl) {
+        super(name, cache, allowNullValues, hitTracker);
+        this.sharedStore = sharedStore;
+        this.codec = codec;
+        this.sharedTtl = sharedTtl;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        // getIfPresent: a LoadingCache must not load here, misses go to L2 first
+        Object value = getNativeCache().getIfPresent(key);
+        if (value != null) {
+            recordHit(key);
+            return value;
+        }
+        Object shared = readShared(key);
+        if (shared == null) {
+            return null;
+        }
+        getNativeCache().put(key, shared);
+        return shared;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return super.get(key, () -> {
+            Object shared = readShared(key);
+            if (shared != null) {
+                return (T) shared;
+            }
+            T loaded = valueLoader.call();
+            writeShared(key, loaded);
+            return loaded;
+        });
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        super.put(key, value);
+        writeShared(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = super.putIfAbsent(key, value);
+        if (existing == null) {
+            writeShared(key, value);
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        super.evict(key);
+        evictShared(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = super.evictIfPresent(key);
+        evictShared(key);
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        clearShared();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = super.invalidate();
+        clearShared();
+        return notEmpty;
+    }
+
+    public long getSharedHits() {
+        return sharedHits.sum();
+    }
+
+    public long getSharedMisses() {
+        return sharedMisses.sum();
+    }
+
+    public long getSharedErrors() {
+        return sharedErrors.sum();
+    }
+
+    private Object readShared(Object key) {
+        try {
+            byte[] bytes = sharedStore.get(getName(), key);
+            if (bytes == null) {
+                sharedMisses.increment();
+                return null;
+            }
+            Object value = codec.decode(bytes);
+            sharedHits.increment();
+            return value;
+        } catch (Exception e) {
+            sharedErrors.increment();
+            log.warn("读取二级缓存失败: {}:{}", getName(), key, e);
+            return null;
+        }
+    }
+
+    private void writeShared(Object key, Object value) {
+        if (value == null) {
+            // Null results stay in L1 only
+            return;
+        }
+        try {
+            sharedStore.put(getName(), key, codec.encode(value), sharedTtl);
+        } catch (Exception e) {
+            sharedErrors.increment();
+            log.warn("写入二级缓存失败: {}:{}", getName(), key, e);
+        }
+    }
+
+    private void evictShared(Object key) {
+        try {
+            sharedStore.evict(getName(), key);
+        } catch (Exception e) {
+            log.error("清除二级缓存失败: {}:{}", getName(), key, e);
+        }
+    }
+
+    private void clearShared() {
+        try {
+            sharedStore.clear(getName());
+        } catch (Exception e) {
+            log.error("清除二级缓存失败: {}", getName(), e);
+        }
+    }
+}
@@ -20,6 +20,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
         config.addAllowedOriginPattern("*");
         config.addAllowedHeader("*");
         config.addAllowedMethod("*");
+        // Let browser clients read the ETag for conditional GETs on book / chapter endpoints
+        config.addExposedHeader("ETag");
         source.registerCorsConfiguration("/**", config);
         return new org.springframework.web.filter.CorsFilter(source);
     }
@@ -1,12 +1,16 @@
 package com.bookstore.controller;
 
 import com.bookstore.common.Result;
+import com.bookstore.dto.HomeFeedPageDTO;
 import com.bookstore.dto.ReaderDataDTO;
 import com.bookstore.service.BookService;
 import com.bookstore.service.ChapterService;
+import com.bookstore.service.ResourceVersionService;
 import com.bookstore.vo.BookVO;
 import com.bookstore.vo.ChapterVO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -17,12 +21,19 @@ import java.util.Map;
 @RequestMapping("/api/v1/books")
 public class BookController {
 
+    // 预取接口上限: 单次最多章节数 / 最大字节数 (2MB)
+    private static final int MAX_PREFETCH_CHAPTERS = 20;
+    private static final int MAX_PREFETCH_BYTES = 2 * 1024 * 1024;
+
     @Autowired
     private BookService bookService;
 
     @Autowired
     private ChapterService chapterService;
 
+    @Autowired
+    private ResourceVersionService resourceVersionService;
+
     @GetMapping("/home")
     public Result<Map<String, List<BookVO>>> getHomeBooks(
             @RequestParam(required = false, defaultValue = "1") Integer page,
@@ -31,29 +42,79 @@ public class BookController {
         return Result.success(bookService.getHomeBooks(page, pageSize, language));
     }
 
+    /**
+     * Cursor-based variant of /home
+     * Without shelf returns the first page of hot/new/male/female with a cursor each;
+     * pass shelf + cursor to load the next page of one shelf
+     */
+    @GetMapping("/home/feed")
+    public Result<Map<String, HomeFeedPageDTO>> getHomeFeed(
+            @RequestParam(required = false) String shelf,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") Integer pageSize,
+            @RequestParam(required = false) String language) {
+        return Result.success(bookService.getHomeFeed(language, shelf, cursor, pageSize));
+    }
+
     @GetMapping("/{id}")
-    public Result<BookVO> getBookDetails(@PathVariable Long id) {
-        return Result.success(bookService.getBookDetails(id));
+    public Result<BookVO> getBookDetails(@PathVariable Long id, ServletWebRequest webRequest) {
+        BookVO book = bookService.getBookDetails(id);
+        // Count the view outside the cached method so cache hits are counted too
+        bookService.incrementViews(id);
+        if (notModified(webRequest, resourceVersionService.bookDetailsTag(book))) {
+            return null;
+        }
+        return Result.success(book);
     }
 
     @GetMapping("/{id}/chapters")
     public Result<List<ChapterVO>> getBookChapters(
             @PathVariable Long id,
             @RequestParam(required = false, defaultValue = "false") Boolean includeFirstChapter,
-            HttpServletRequest request) {
+            HttpServletRequest request,
+            ServletWebRequest webRequest) {
         Long userId = (Long) request.getAttribute("userId");
+        if (notModified(webRequest, resourceVersionService.chapterListTag(id, includeFirstChapter, userId))) {
+            return null;
+        }
         return Result.success(chapterService.getChaptersByBookId(id, includeFirstChapter, userId));
     }
 
+    /**
+     * Reader prefetch - returns a run of consecutive chapter bodies in one call
+     * Starts at fromChapterId or fromOrderNum (first chapter if neither is given),
+     * limited by maxChapters and maxBytes; stops at the first chapter that requires a subscription
+     */
+    @GetMapping("/{id}/chapters/prefetch")
+    public Result<List<ChapterVO>> prefetchChapters(
+            @PathVariable Long id,
+            @RequestParam(required = false) Long fromChapterId,
+            @RequestParam(required = false) Integer fromOrderNum,
+            @RequestParam(required = false, defaultValue = "5") Integer maxChapters,
+            @RequestParam(required = false, defaultValue = "524288") Integer maxBytes,
+            HttpServletRequest request) {
+        Long userId = (Long) request.getAttribute("userId");
+        int chapters = Math.max(1, Math.min(maxChapters, MAX_PREFETCH_CHAPTERS));
+        int bytes = Math.max(1, Math.min(maxBytes, MAX_PREFETCH_BYTES));
+        return Result.success(chapterService.getChapterRun(id, fromChapterId, fromOrderNum, chapters, bytes, userId));
+    }
+
     @GetMapping("/chapters/{id}")
-    public Result<ChapterVO> getChapterDetails(@PathVariable Long id, HttpServletRequest request) {
+    public Result<ChapterVO> getChapterDetails(@PathVariable Long id, HttpServletRequest request,
+                                               ServletWebRequest webRequest) {
         Long userId = (Long) request.getAttribute("userId");
+        // Answered from chapter metadata, the content is not loaded for a 304
+        if (notModified(webRequest, resourceVersionService.chapterTag(id, userId))) {
+            return null;
+        }
         return Result.success(chapterService.getChapterDetails(id, userId));
     }
 
     @GetMapping("/search")
-    public Result<List<BookVO>> searchBooks(@RequestParam String keyword) {
-        return Result.success(bookService.searchBooks(keyword));
+    public Result<List<BookVO>> searchBooks(
+            @RequestParam String keyword,
+            @RequestParam(required = false) String language) {
+        return Result.success(bookService.searchBooks(keyword, language));
     }
 
     @PostMapping("/{id}/like")
@@ -68,8 +129,29 @@ public class BookController {
      * Reduces API calls from 2-3 to 1, and DB queries from 5+ to 3
      */
     @GetMapping("/{id}/reader-data")
-    public Result<ReaderDataDTO> getReaderData(@PathVariable Long id, HttpServletRequest request) {
+    public Result<ReaderDataDTO> getReaderData(@PathVariable Long id, HttpServletRequest request,
+                                              ServletWebRequest webRequest) {
         Long userId = (Long) request.getAttribute("userId");
+        if (notModified(webRequest, resourceVersionService.readerDataTag(id, userId))) {
+            // Still an open of the book
+            bookService.incrementViews(id);
+            return null;
+        }
         return Result.success(bookService.getReaderData(id, userId));
     }
+
+    /**
+     * Set the ETag and answer a matching If-None-Match with 304 (caller then returns null).
+     * Responses depend on the user's subscription, so they may only be cached by the client
+     * and must be revalidated.
+     */
+    private boolean notModified(ServletWebRequest webRequest, String etag) {
+        if (etag == null) {
+            return false;
+        }
+        if (webRequest.getResponse() != null) {
+            webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        }
+        return webRequest.checkNotModified(etag);
+    }
 }
@@ -1,11 +1,11 @@
 package com.bookstore.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.bookstore.common.Result;
 import com.bookstore.entity.Book;
-import com.bookstore.entity.BookPasscode;
 import com.bookstore.service.BookPasscodeService;
 import com.bookstore.service.BookService;
+import com.bookstore.service.PasscodeIndex;
+import com.bookstore.service.PasscodeTrackingPipeline;
 import com.bookstore.vo.BookVO;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.Data;
@@ -21,6 +21,7 @@ public class PasscodeController {
 
     private final BookPasscodeService passcodeService;
     private final BookService bookService;
+    private final PasscodeTrackingPipeline trackingPipeline;
 
     /**
      * Search book by passcode only (without bookId)
@@ -29,7 +30,7 @@ public class PasscodeController {
     @PostMapping("/search")
     public Result<PasscodeSearchResponse> searchByPasscode(@RequestBody PasscodeSearchRequest request) {
         // Find valid passcode by code only
-        BookPasscode passcode = passcodeService.findValidPasscodeByCode(request.getPasscode());
+        PasscodeIndex.PasscodeEntry passcode = passcodeService.findValidPasscodeByCode(request.getPasscode());
 
         if (passcode == null) {
             PasscodeSearchResponse response = new PasscodeSearchResponse();
@@ -39,7 +40,7 @@ public class PasscodeController {
         }
 
         // Get book details
-        Book book = bookService.getById(passcode.getBookId());
+        Book book = bookService.getById(passcode.bookId());
         if (book == null) {
             PasscodeSearchResponse response = new PasscodeSearchResponse();
             response.setValid(false);
@@ -54,9 +55,9 @@ public class PasscodeController {
         // Build response
         PasscodeSearchResponse response = new PasscodeSearchResponse();
         response.setValid(true);
-        response.setPasscodeId(passcode.getId());
-        response.setDistributorId(passcode.getDistributorId());
-        response.setBookId(passcode.getBookId());
+        response.setPasscodeId(passcode.id());
+        response.setDistributorId(passcode.distributorId());
+        response.setBookId(passcode.bookId());
         response.setBook(bookVO);
 
         return Result.success(response);
@@ -67,24 +68,17 @@ public class PasscodeController {
      */
     @PostMapping("/validate")
     public Result<PasscodeValidationResponse> validatePasscode(@RequestBody PasscodeValidateRequest request) {
-        boolean isValid = passcodeService.validatePasscode(request.getPasscode(), request.getBookId());
+        PasscodeIndex.PasscodeEntry passcode = passcodeService.findValidPasscode(request.getPasscode(), request.getBookId());
 
-        if (!isValid) {
+        if (passcode == null) {
             return Result.error("Invalid passcode or passcode has expired");
         }
 
-        // Get passcode details
-        QueryWrapper<BookPasscode> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("passcode", request.getPasscode());
-        queryWrapper.eq("book_id", request.getBookId());
-        queryWrapper.eq("deleted", 0);
-        BookPasscode passcode = passcodeService.getOne(queryWrapper);
-
         PasscodeValidationResponse response = new PasscodeValidationResponse();
         response.setValid(true);
-        response.setPasscodeId(passcode.getId());
-        response.setDistributorId(passcode.getDistributorId());
-        response.setBookId(passcode.getBookId());
+        response.setPasscodeId(passcode.id());
+        response.setDistributorId(passcode.distributorId());
+        response.setBookId(passcode.bookId());
 
         return Result.success(response);
     }
@@ -95,32 +89,23 @@ public class PasscodeController {
      */
     @PostMapping("/track")
     public Result<String> trackPasscodeAction(@RequestBody PasscodeTrackRequest request, HttpServletRequest httpRequest) {
-        // Find passcode by ID
-        BookPasscode passcode = passcodeService.getById(request.getPasscodeId());
-        if (passcode == null || passcode.getDeleted()) {
-            return Result.error("Passcode not found");
-        }
-
         // Validate action type
         String actionType = request.getActionType();
         if (actionType == null || (!actionType.equals("use") && !actionType.equals("open") && !actionType.equals("sub"))) {
             return Result.error("Invalid action type. Must be 'use', 'open', or 'sub'");
         }
 
-        // Record usage log
+        // Buffer the usage log and counter updates; written in batches by the pipeline
+        // use - increments used count, open - increments view count,
+        // sub - recorded in log but doesn't increment counters (order already tracks this)
         String ipAddress = getClientIp(httpRequest);
         String deviceInfo = httpRequest.getHeader("User-Agent");
-        passcodeService.recordUsage(passcode.getId(), request.getUserId(), actionType, ipAddress, deviceInfo);
-
-        // Update counters based on action type
-        if ("use".equals(actionType)) {
-            // Increment used count when passcode is validated/used
-            passcodeService.incrementUsedCount(passcode.getId());
-        } else if ("open".equals(actionType)) {
-            // Increment view count when book is opened for reading
-            passcodeService.incrementViewCount(passcode.getId());
+        PasscodeTrackingPipeline.TrackResult trackResult = trackingPipeline.track(request.getPasscodeId(),
+                request.getUserId(), actionType, ipAddress, deviceInfo,
+                "use".equals(actionType), "open".equals(actionType));
+        if (trackResult != PasscodeTrackingPipeline.TrackResult.ACCEPTED) {
+            return trackError(trackResult);
         }
-        // 'sub' action is recorded in log but doesn't increment counters (order already tracks this)
 
         return Result.success("Action tracked successfully");
     }
@@ -132,29 +117,19 @@ public class PasscodeController {
     @PostMapping("/use")
     public Result<String> usePasscode(@RequestBody PasscodeUseRequest request, HttpServletRequest httpRequest) {
         // Validate passcode
-        boolean isValid = passcodeService.validatePasscode(request.getPasscode(), request.getBookId());
-        if (!isValid) {
-            return Result.error("Invalid passcode or passcode has expired");
-        }
-
-        // Get passcode
-        QueryWrapper<BookPasscode> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("passcode", request.getPasscode());
-        queryWrapper.eq("book_id", request.getBookId());
-        queryWrapper.eq("deleted", 0);
-        BookPasscode passcode = passcodeService.getOne(queryWrapper);
-
+        PasscodeIndex.PasscodeEntry passcode = passcodeService.findValidPasscode(request.getPasscode(), request.getBookId());
         if (passcode == null) {
-            return Result.error("Passcode not found");
+            return Result.error("Invalid passcode or passcode has expired");
         }
 
-        // Record usage
+        // Record usage and increment used count
         String ipAddress = getClientIp(httpRequest);
         String deviceInfo = httpRequest.getHeader("User-Agent");
-        passcodeService.recordUsage(passcode.getId(), request.getUserId(), "open", ipAddress, deviceInfo);
-
-        // Increment used count
-        passcodeService.incrementUsedCount(passcode.getId());
+        PasscodeTrackingPipeline.TrackResult trackResult = trackingPipeline.track(passcode.id(),
+                request.getUserId(), "open", ipAddress, deviceInfo, true, false);
+        if (trackResult != PasscodeTrackingPipeline.TrackResult.ACCEPTED) {
+            return trackError(trackResult);
+        }
 
         return Result.success("Passcode used successfully");
     }
@@ -165,23 +140,26 @@ public class PasscodeController {
      */
     @PostMapping("/log-view")
     public Result<String> logView(@RequestBody PasscodeLogViewRequest request, HttpServletRequest httpRequest) {
-        // Get passcode by ID
-        BookPasscode passcode = passcodeService.getById(request.getPasscodeId());
-        if (passcode == null || passcode.getDeleted()) {
-            return Result.error("Passcode not found");
-        }
-
-        // Record view
+        // Record view and increment view count
         String ipAddress = getClientIp(httpRequest);
         String deviceInfo = httpRequest.getHeader("User-Agent");
-        passcodeService.recordUsage(request.getPasscodeId(), request.getUserId(), "view", ipAddress, deviceInfo);
-
-        // Increment view count
-        passcodeService.incrementViewCount(request.getPasscodeId());
+        PasscodeTrackingPipeline.TrackResult trackResult = trackingPipeline.track(request.getPasscodeId(),
+                request.getUserId(), "view", ipAddress, deviceInfo, false, true);
+        if (trackResult != PasscodeTrackingPipeline.TrackResult.ACCEPTED) {
+            return trackError(trackResult);
+        }
 
         return Result.success("View logged successfully");
     }
 
+    private Result<String> trackError(PasscodeTrackingPipeline.TrackResult trackResult) {
+        if (trackResult == PasscodeTrackingPipeline.TrackResult.NOT_FOUND) {
+            return Result.error("Passcode not found");
+        }
+        // Tracking buffer is full, the client should retry later
+        return Result.error(429, "Too many requests, please retry later");
+    }
+
     /**
      * Get client IP address
      */
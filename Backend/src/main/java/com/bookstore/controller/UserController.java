@@ -1,6 +1,7 @@
 package com.bookstore.controller;
 
 import com.bookstore.common.Result;
+import com.bookstore.service.SubscriptionEntitlementCache;
 import com.bookstore.service.UserService;
 import com.bookstore.vo.UserVO;
 import jakarta.servlet.http.HttpServletRequest;
@@ -16,6 +17,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private SubscriptionEntitlementCache subscriptionEntitlementCache;
+
     @GetMapping("/profile")
     public Result<UserVO> getProfile(HttpServletRequest request) {
         Long userId = (Long) request.getAttribute("userId");
@@ -72,6 +76,7 @@ public class UserController {
         com.bookstore.entity.User user = userService.getById(userId);
         user.setIsSvip(true);
         userService.updateById(user);
+        subscriptionEntitlementCache.update(user);
         return Result.success(userService.getUserProfile(userId));
     }
 
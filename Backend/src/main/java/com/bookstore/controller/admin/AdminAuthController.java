@@ -6,6 +6,7 @@ import com.bookstore.entity.AdminUser;
 import com.bookstore.entity.Distributor;
 import com.bookstore.service.AdminUserService;
 import com.bookstore.service.DistributorService;
+import com.bookstore.util.JwtPrincipal;
 import com.bookstore.util.JwtUtils;
 import com.bookstore.exception.CustomException;
 import lombok.Data;
@@ -94,13 +95,14 @@ public class AdminAuthController {
         }
 
         String token = authHeader.substring(7);
-        if (!jwtUtils.validateToken(token)) {
+        JwtPrincipal principal = jwtUtils.parseToken(token);
+        if (principal == null) {
             throw new CustomException("Token已过期或无效");
         }
 
-        String role = jwtUtils.getRoleFromToken(token);
-        Long userId = jwtUtils.getUserIdFromToken(token);
-        String username = jwtUtils.getUsernameFromToken(token);
+        String role = principal.role();
+        Long userId = principal.userId();
+        String username = principal.username();
 
         UserInfoDTO userInfo = new UserInfoDTO();
         userInfo.setRole(role);
@@ -51,8 +51,8 @@ public class BookManagementController {
     @PostMapping
     public Result<Book> createBook(@RequestBody Book book) {
         bookService.save(book);
-        // 新增书籍后清除首页缓存
-        cacheService.evictHomeBooksCache();
+        // 新增书籍后更新首页书架中该书籍的位置
+        cacheService.evictBookCache(book.getId());
         return Result.success(book);
     }
 
@@ -104,6 +104,8 @@ public class BookManagementController {
                 bookTagRepository.insert(bookTag);
             }
         }
+        // 标签参与搜索，重新索引该书籍
+        cacheService.evictBookCache(id);
         return Result.success("标签更新成功");
     }
 
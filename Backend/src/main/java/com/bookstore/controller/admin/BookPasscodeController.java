@@ -14,6 +14,7 @@ import com.bookstore.repository.PasscodeUsageLogRepository;
 import com.bookstore.service.BookPasscodeService;
 import com.bookstore.service.BookService;
 import com.bookstore.service.DistributorService;
+import com.bookstore.service.PasscodeIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
 import org.springframework.util.StringUtils;
@@ -37,6 +38,7 @@ public class BookPasscodeController {
     private final DistributorService distributorService;
     private final PasscodeUsageLogRepository usageLogRepository;
     private final OrderRepository orderRepository;
+    private final PasscodeIndex passcodeIndex;
 
     /**
      * Get all passcodes with pagination and search (optimized with JOIN query)
@@ -108,9 +110,6 @@ public class BookPasscodeController {
         // Set book ID
         passcode.setBookId(bookId);
 
-        // Always generate passcode automatically (ignore user input)
-        passcode.setPasscode(passcodeService.generatePasscode());
-
         // Set default values
         if (passcode.getStatus() == null) {
             passcode.setStatus(1);
@@ -125,7 +124,8 @@ public class BookPasscodeController {
         passcode.setCreatedAt(LocalDateTime.now());
         passcode.setUpdatedAt(LocalDateTime.now());
 
-        passcodeService.save(passcode);
+        // Always generate passcode automatically (ignore user input)
+        passcodeService.saveWithGeneratedPasscode(passcode);
 
         // Convert to DTO
         BookPasscodeDTO dto = new BookPasscodeDTO();
@@ -182,6 +182,7 @@ public class BookPasscodeController {
 
         // Get updated data
         BookPasscode updated = passcodeService.getById(id);
+        passcodeIndex.put(updated);
         List<BookPasscodeDTO> dtoList = convertToDTO(List.of(updated));
 
         return Result.success(dtoList.isEmpty() ? null : dtoList.get(0));
@@ -199,6 +200,7 @@ public class BookPasscodeController {
 
         // Use removeById to trigger @TableLogic soft delete
         passcodeService.removeById(id);
+        passcodeIndex.remove(id);
 
         return Result.success("Deleted successfully");
     }
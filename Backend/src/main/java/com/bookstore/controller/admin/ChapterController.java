@@ -71,9 +71,10 @@ public class ChapterController {
         chapter.setId(id);
         chapter.setBookId(bookId);
         chapterMapper.updateById(chapter);
-        // 更新章节后清除相关缓存
-        cacheService.evictChapterCache(bookId);
+        // 更新章节后清除相关缓存；先清除章节内容，阅读页数据由章节内容缓存组装，
+        // 否则并发请求可能用旧的章节内容重新生成阅读页数据
         cacheService.evictChapterContentCache(id);
+        cacheService.evictChapterCache(bookId);
         return Result.success(chapter);
     }
 
@@ -85,9 +86,10 @@ public class ChapterController {
         }
 
         chapterMapper.deleteById(id);
-        // 删除章节后清除相关缓存
-        cacheService.evictChapterCache(bookId);
+        // 删除章节后清除相关缓存；先清除章节内容，阅读页数据由章节内容缓存组装，
+        // 否则并发请求可能用旧的章节内容重新生成阅读页数据
         cacheService.evictChapterContentCache(id);
+        cacheService.evictChapterCache(bookId);
         return Result.success("Deleted");
     }
 }
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.bookstore.common.Result;
 import com.bookstore.entity.Order;
 import com.bookstore.repository.OrderRepository;
+import com.bookstore.service.DashboardStatsTracker;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +17,7 @@ import org.springframework.web.bind.annotation.*;
 public class OrderManagementController {
 
     private final OrderRepository orderRepository;
+    private final DashboardStatsTracker dashboardStatsTracker;
 
     @GetMapping
     public Result<IPage<Order>> getOrders(
@@ -30,15 +32,20 @@ public class OrderManagementController {
     public Result<String> refundOrder(@PathVariable Long id) {
         Order order = orderRepository.selectById(id);
         if (order != null) {
+            String previousStatus = order.getStatus();
             order.setStatus("Refunded");
             orderRepository.updateById(order);
+            dashboardStatsTracker.recordStatusChange(order, previousStatus);
         }
         return Result.success("Refunded");
     }
 
     @DeleteMapping("/{id}")
     public Result<String> deleteOrder(@PathVariable Long id) {
-        orderRepository.deleteById(id);
+        Order order = orderRepository.selectById(id);
+        if (order != null && orderRepository.deleteById(id) > 0) {
+            dashboardStatsTracker.recordDeleted(order);
+        }
         return Result.success("Deleted");
     }
 }
@@ -15,6 +15,7 @@ import com.bookstore.repository.DistributorRepository;
 import com.bookstore.repository.OrderRepository;
 import com.bookstore.repository.SubscriptionProductRepository;
 import com.bookstore.repository.UserMapper;
+import com.bookstore.service.SubscriptionEntitlementCache;
 import com.bookstore.service.SubscriptionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.BeanUtils;
@@ -38,6 +39,7 @@ public class SubscriptionManagementController {
     private final SubscriptionProductRepository subscriptionProductRepository;
     private final UserMapper userMapper;
     private final DistributorRepository distributorRepository;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
 
     /**
      * Get subscription orders list with pagination and filters (使用 JOIN 查询关联用户名和分销商名称)
@@ -125,6 +127,7 @@ public class SubscriptionManagementController {
                 if (user != null) {
                     user.setSubscriptionStatus("cancelled");
                     userMapper.updateById(user);
+                    subscriptionEntitlementCache.update(user);
                 }
 
                 return Result.success("Subscription cancelled successfully");
@@ -4,9 +4,12 @@ import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.bookstore.common.Result;
+import com.bookstore.dto.CachePolicyDTO;
+import com.bookstore.dto.CacheStatsDTO;
 import com.bookstore.entity.AdminUser;
 import com.bookstore.entity.SystemConfig;
 import com.bookstore.service.AdminUserService;
+import com.bookstore.service.CacheService;
 import com.bookstore.service.SystemConfigService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.util.StringUtils;
@@ -23,6 +26,7 @@ public class SystemController {
     private final SystemConfigService systemConfigService;
     private final AdminUserService adminUserService;
     private final com.bookstore.repository.OperationLogRepository logRepository;
+    private final CacheService cacheService;
 
     // --- System Configs ---
 
@@ -92,6 +96,18 @@ public class SystemController {
         return Result.success("Deleted");
     }
 
+    // --- Caches ---
+
+    @GetMapping("/caches")
+    public Result<List<CachePolicyDTO>> getCaches() {
+        return Result.success(cacheService.describeCaches());
+    }
+
+    @GetMapping("/caches/stats")
+    public Result<List<CacheStatsDTO>> getCacheStats(@RequestParam(defaultValue = "10") Integer topKeys) {
+        return Result.success(cacheService.getCacheStats(Math.max(0, Math.min(topKeys, 100))));
+    }
+
     // --- Operation Logs ---
 
     @GetMapping("/logs")
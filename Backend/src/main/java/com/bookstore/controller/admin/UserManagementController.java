@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.bookstore.common.Result;
 import com.bookstore.entity.User;
+import com.bookstore.service.SubscriptionEntitlementCache;
 import com.bookstore.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.util.DigestUtils;
@@ -20,6 +21,7 @@ import java.nio.charset.StandardCharsets;
 public class UserManagementController {
 
     private final UserService userService;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
 
     @GetMapping
     public Result<IPage<User>> getUsers(
@@ -87,6 +89,8 @@ public class UserManagementController {
             user.setPassword(DigestUtils.md5DigestAsHex(user.getPassword().getBytes(StandardCharsets.UTF_8)));
         }
         userService.updateById(user);
+        // 管理员可能修改了 SVIP / 订阅字段，清除权益缓存
+        subscriptionEntitlementCache.evict(id);
         return Result.success("更新成功");
     }
 
@@ -0,0 +1,17 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pending views / likes increments of one book, flushed in a batched UPDATE
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookCounterDelta {
+    private Long bookId;
+    private Long views;
+    private Long likes;
+}
@@ -0,0 +1,33 @@
+package com.bookstore.dto;
+
+import lombok.Data;
+
+/**
+ * Effective policy and current size of one cache
+ */
+@Data
+public class CachePolicyDTO {
+    private String name;
+    private Long expireAfterWriteSeconds;
+    /**
+     * Entries read after this age are reloaded in the background, null when refresh-ahead is off
+     */
+    private Long refreshAfterWriteSeconds;
+    /**
+     * Max entries, null when the cache is bounded by weight
+     */
+    private Long maximumSize;
+    /**
+     * Max estimated bytes, null when the cache is bounded by entry count
+     */
+    private Long maximumWeightBytes;
+    private Long estimatedSize;
+    /**
+     * Current estimated bytes, null when the cache is bounded by entry count
+     */
+    private Long weightedSizeBytes;
+    /**
+     * Whether local misses fall through to the shared L2 store
+     */
+    private Boolean sharedTier;
+}
@@ -0,0 +1,46 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Runtime statistics of one cache
+ */
+@Data
+public class CacheStatsDTO {
+    private String name;
+    private Long estimatedSize;
+    private Long hitCount;
+    private Long missCount;
+    private Double hitRate;
+    private Long loadSuccessCount;
+    private Long loadFailureCount;
+    private Double averageLoadMillis;
+    private Long evictionCount;
+    /**
+     * Estimated heap usage; exact weighted size for byte-bounded caches, sampled otherwise
+     */
+    private Long estimatedMemoryBytes;
+    /**
+     * Shared L2 counters, null when the cache has no L2 tier
+     */
+    private Long sharedHits;
+    private Long sharedMisses;
+    private Long sharedErrors;
+    /**
+     * Most hit keys since keyWindowStart
+     */
+    private List<KeyHits> topKeys;
+    private Long keyWindowStart;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class KeyHits {
+        private String key;
+        private Long hits;
+    }
+}
@@ -0,0 +1,21 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Chapter metadata used as HTTP validator, loaded without the content column
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChapterVersionDTO {
+    private Long chapterId;
+    private Long bookId;
+    private Boolean isFree;
+    /**
+     * updated_at in epoch millis, 0 when unknown
+     */
+    private Long updatedAtMillis;
+}
@@ -0,0 +1,19 @@
+package com.bookstore.dto;
+
+import com.bookstore.vo.BookVO;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of a home feed shelf with keyset cursor for the next page
+ */
+@Data
+public class HomeFeedPageDTO {
+    private List<BookVO> books;
+    /**
+     * Opaque cursor of the last returned book, pass back to get the next page
+     */
+    private String nextCursor;
+    private Boolean hasMore;
+}
@@ -0,0 +1,17 @@
+package com.bookstore.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Pending used / view count increments of one passcode, flushed in a batched UPDATE
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PasscodeCounterDelta {
+    private Long passcodeId;
+    private Long usedCount;
+    private Long viewCount;
+}
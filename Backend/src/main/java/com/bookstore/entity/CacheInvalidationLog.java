@@ -0,0 +1,20 @@
+package com.bookstore.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("cache_invalidation_log")
+public class CacheInvalidationLog {
+    @TableId(type = IdType.AUTO)
+    private Long id;
+
+    private String eventType;
+    private Long targetId;
+    private String sourceNode;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,12 @@
+package com.bookstore.exception;
+
+/**
+ * 章节不存在
+ *
+ * 由章节缓存的加载方法抛出，不存在的章节 id 不会被缓存
+ */
+public class ChapterNotFoundException extends CustomException {
+    public ChapterNotFoundException() {
+        super("Chapter not found");
+    }
+}
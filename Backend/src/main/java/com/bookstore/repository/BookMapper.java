@@ -1,6 +1,7 @@
 package com.bookstore.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.bookstore.dto.BookCounterDelta;
 import com.bookstore.entity.Book;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
@@ -32,6 +33,7 @@ public interface BookMapper extends BaseMapper<Book> {
 
     /**
      * Atomic increment views count to avoid race condition
+     * Request paths use BookCounterAggregator + batchIncrementCounters instead
      */
     @Update("UPDATE books SET views = COALESCE(views, 0) + 1 WHERE id = #{id}")
     void incrementViews(@Param("id") Long id);
@@ -42,6 +44,24 @@ public interface BookMapper extends BaseMapper<Book> {
     @Update("UPDATE books SET likes = COALESCE(likes, 0) + 1 WHERE id = #{id}")
     void incrementLikes(@Param("id") Long id);
 
+    /**
+     * Apply aggregated views / likes increments of many books in one UPDATE
+     * updated_at is kept unchanged: counter flushes are not content edits
+     */
+    @Update("<script>" +
+            "UPDATE books SET " +
+            "views = COALESCE(views, 0) + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.bookId} THEN #{d.views} </foreach>" +
+            "ELSE 0 END, " +
+            "likes = COALESCE(likes, 0) + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.bookId} THEN #{d.likes} </foreach>" +
+            "ELSE 0 END, " +
+            "updated_at = updated_at " +
+            "WHERE id IN " +
+            "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d.bookId}</foreach>" +
+            "</script>")
+    int batchIncrementCounters(@Param("deltas") List<BookCounterDelta> deltas);
+
     /**
      * Batch query chapter counts for multiple books to avoid N+1 problem
      */
@@ -2,10 +2,12 @@ package com.bookstore.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.bookstore.dto.BookPasscodeDTO;
+import com.bookstore.dto.PasscodeCounterDelta;
 import com.bookstore.entity.BookPasscode;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
 
 import java.util.List;
 
@@ -122,4 +124,28 @@ public interface BookPasscodeRepository extends BaseMapper<BookPasscode> {
             @Param("startDate") String startDate,
             @Param("endDate") String endDate,
             @Param("limit") int limit);
+
+    /**
+     * All passcodes including soft-deleted ones (uk_passcode still covers them), for PasscodeCodeAllocator
+     */
+    @Select("SELECT passcode FROM book_passcodes")
+    List<String> selectAllPasscodes();
+
+    /**
+     * Apply aggregated used / view count increments of many passcodes in one UPDATE
+     * updated_at is kept unchanged: counter flushes are not passcode edits
+     */
+    @Update("<script>" +
+            "UPDATE book_passcodes SET " +
+            "used_count = COALESCE(used_count, 0) + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.passcodeId} THEN #{d.usedCount} </foreach>" +
+            "ELSE 0 END, " +
+            "view_count = COALESCE(view_count, 0) + CASE id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.passcodeId} THEN #{d.viewCount} </foreach>" +
+            "ELSE 0 END, " +
+            "updated_at = updated_at " +
+            "WHERE id IN " +
+            "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d.passcodeId}</foreach>" +
+            "</script>")
+    int batchIncrementCounters(@Param("deltas") List<PasscodeCounterDelta> deltas);
 }
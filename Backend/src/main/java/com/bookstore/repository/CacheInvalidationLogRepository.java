@@ -0,0 +1,25 @@
+package com.bookstore.repository;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.bookstore.entity.CacheInvalidationLog;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface CacheInvalidationLogRepository extends BaseMapper<CacheInvalidationLog> {
+
+    @Select("SELECT COALESCE(MAX(id), 0) FROM cache_invalidation_log")
+    Long selectMaxId();
+
+    @Select("SELECT id, event_type, target_id, source_node, created_at FROM cache_invalidation_log " +
+            "WHERE id > #{afterId} ORDER BY id LIMIT #{limit}")
+    List<CacheInvalidationLog> selectAfter(@Param("afterId") Long afterId, @Param("limit") int limit);
+
+    @Delete("DELETE FROM cache_invalidation_log WHERE created_at < #{before}")
+    int deleteBefore(@Param("before") LocalDateTime before);
+}
@@ -3,7 +3,36 @@ package com.bookstore.repository;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.bookstore.entity.Chapter;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
 
 @Mapper
 public interface ChapterMapper extends BaseMapper<Chapter> {
+
+    /**
+     * Lightweight chapter index (table of contents) for a book
+     * Does not select the LONGTEXT content column
+     */
+    @Select("SELECT id, book_id, title, order_num, is_free FROM chapters " +
+            "WHERE book_id = #{bookId} " +
+            "ORDER BY order_num ASC")
+    List<Chapter> selectChapterIndexByBookId(@Param("bookId") Long bookId);
+
+    /**
+     * Get validator columns of a chapter (no content)
+     */
+    @Select("SELECT id, book_id, is_free, updated_at FROM chapters WHERE id = #{id}")
+    Chapter selectChapterVersionById(@Param("id") Long id);
+
+    /**
+     * Consecutive chapters (with content) of a book by order number range, inclusive
+     */
+    @Select("SELECT * FROM chapters " +
+            "WHERE book_id = #{bookId} AND order_num BETWEEN #{fromOrderNum} AND #{toOrderNum} " +
+            "ORDER BY order_num ASC")
+    List<Chapter> selectChaptersByOrderRange(@Param("bookId") Long bookId,
+                                             @Param("fromOrderNum") Integer fromOrderNum,
+                                             @Param("toOrderNum") Integer toOrderNum);
 }
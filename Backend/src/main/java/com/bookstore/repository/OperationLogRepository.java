@@ -2,8 +2,23 @@ package com.bookstore.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.bookstore.entity.OperationLog;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface OperationLogRepository extends BaseMapper<OperationLog> {
+
+    /**
+     * Insert many operation logs in one multi-row INSERT (used by OperationLogWriter)
+     */
+    @Insert("<script>" +
+            "INSERT INTO operation_logs (admin_id, username, action, target, params, ip, create_time) VALUES " +
+            "<foreach collection='logs' item='l' separator=','>" +
+            "(#{l.adminId}, #{l.username}, #{l.action}, #{l.target}, #{l.params}, #{l.ip}, #{l.createTime})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("logs") List<OperationLog> logs);
 }
@@ -10,6 +10,8 @@ import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Mapper
@@ -178,4 +180,17 @@ public interface OrderRepository extends BaseMapper<Order> {
     List<PlatformDistributionDTO> selectPlatformDistribution(
             @Param("startDate") String startDate,
             @Param("endDate") String endDate);
+
+    /**
+     * Sum of paid order amounts, for DashboardStatsTracker reconciliation
+     */
+    @Select("SELECT COALESCE(SUM(amount), 0) FROM orders WHERE status = 'Paid'")
+    BigDecimal sumPaidAmount();
+
+    /**
+     * Sum of paid order amounts created in [start, end]
+     */
+    @Select("SELECT COALESCE(SUM(amount), 0) FROM orders " +
+            "WHERE status = 'Paid' AND create_time >= #{start} AND create_time <= #{end}")
+    BigDecimal sumPaidAmountBetween(@Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 }
@@ -2,8 +2,25 @@ package com.bookstore.repository;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.bookstore.entity.PasscodeUsageLog;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface PasscodeUsageLogRepository extends BaseMapper<PasscodeUsageLog> {
+
+    /**
+     * Insert many usage logs in one multi-row INSERT (used by PasscodeTrackingPipeline)
+     */
+    @Insert("<script>" +
+            "INSERT INTO passcode_usage_logs " +
+            "(passcode_id, user_id, book_id, distributor_id, action_type, ip_address, device_info, created_at) VALUES " +
+            "<foreach collection='logs' item='l' separator=','>" +
+            "(#{l.passcodeId}, #{l.userId}, #{l.bookId}, #{l.distributorId}, #{l.actionType}, " +
+            "#{l.ipAddress}, #{l.deviceInfo}, #{l.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("logs") List<PasscodeUsageLog> logs);
 }
@@ -0,0 +1,119 @@
+package com.bookstore.service;
+
+import com.bookstore.config.AppleSignInConfig;
+import com.bookstore.config.SchedulingConfig;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.proc.SecurityContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Apple Sign In 公钥缓存
+ *
+ * 公钥保存在内存中，登录验证不再同步请求 appleid.apple.com：
+ * - 启动后立即在后台拉取，之后按 keys-refresh-interval-ms 定期刷新
+ * - 令牌的 kid 不在缓存中时 (Apple 轮换了密钥) 立即重新拉取一次，
+ *   两次拉取至少间隔 keys-min-refetch-interval-ms
+ * - 拉取失败时继续使用已缓存的公钥
+ */
+@Slf4j
+@Component
+public class AppleJwkSource implements JWKSource<SecurityContext> {
+
+    /**
+     * 公钥集合大小上限 (字节)
+     */
+    private static final int KEYS_SIZE_LIMIT = 64 * 1024;
+
+    private final AppleSignInConfig appleConfig;
+
+    private volatile JWKSet jwkSet = new JWKSet();
+    private volatile long lastFetchAttemptMillis;
+    private volatile long lastSuccessMillis;
+
+    private final Object fetchLock = new Object();
+
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+
+    public AppleJwkSource(AppleSignInConfig appleConfig, MeterRegistry meterRegistry) {
+        this.appleConfig = appleConfig;
+        this.refreshSuccess = Counter.builder("apple.jwks.refresh").tag("result", "success").register(meterRegistry);
+        this.refreshFailure = Counter.builder("apple.jwks.refresh").tag("result", "failure").register(meterRegistry);
+        Gauge.builder("apple.jwks.keys", this, source -> source.jwkSet.getKeys().size())
+                .description("Apple public keys currently cached")
+                .register(meterRegistry);
+        Gauge.builder("apple.jwks.age.seconds", this, AppleJwkSource::ageSeconds)
+                .description("Seconds since Apple public keys were last fetched")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 定时刷新，默认每小时一次 (启动时立即执行第一次)
+     */
+    @Scheduled(fixedDelayString = "${apple.signin.keys-refresh-interval-ms:3600000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void scheduledRefresh() {
+        synchronized (fetchLock) {
+            fetch();
+        }
+    }
+
+    @Override
+    public List<JWK> get(JWKSelector jwkSelector, SecurityContext context) throws KeySourceException {
+        List<JWK> matches = jwkSelector.select(jwkSet);
+        if (!matches.isEmpty()) {
+            return matches;
+        }
+
+        // Unknown kid (key rotation) or keys not loaded yet: refetch, rate limited
+        synchronized (fetchLock) {
+            matches = jwkSelector.select(jwkSet);
+            if (matches.isEmpty() && System.currentTimeMillis() - lastFetchAttemptMillis
+                    >= appleConfig.getKeysMinRefetchIntervalMs()) {
+                fetch();
+                matches = jwkSelector.select(jwkSet);
+            }
+        }
+        if (matches.isEmpty() && jwkSet.getKeys().isEmpty()) {
+            throw new KeySourceException("Apple public keys unavailable");
+        }
+        return matches;
+    }
+
+    /**
+     * Fetch keys and swap them in; on failure keep serving the cached set
+     */
+    private void fetch() {
+        lastFetchAttemptMillis = System.currentTimeMillis();
+        try {
+            int timeout = appleConfig.getKeysTimeoutMs();
+            JWKSet loaded = JWKSet.load(new URL(appleConfig.getKeysUrl()), timeout, timeout, KEYS_SIZE_LIMIT);
+            if (loaded.getKeys().isEmpty()) {
+                throw new IllegalStateException("empty key set");
+            }
+            jwkSet = loaded;
+            lastSuccessMillis = System.currentTimeMillis();
+            refreshSuccess.increment();
+            log.debug("Apple 公钥已刷新, 数量: {}", loaded.getKeys().size());
+        } catch (Exception e) {
+            refreshFailure.increment();
+            log.warn("Apple 公钥刷新失败, 继续使用缓存的 {} 个公钥: {}", jwkSet.getKeys().size(), e.getMessage());
+        }
+    }
+
+    private double ageSeconds() {
+        return lastSuccessMillis == 0 ? Double.NaN : (System.currentTimeMillis() - lastSuccessMillis) / 1000.0;
+    }
+}
@@ -37,6 +37,8 @@ public class AppleWebhookService {
     private final OrderRepository orderRepository;
     private final ProcessedTransactionRepository processedTransactionRepository;
     private final UserMapper userMapper;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
+    private final DashboardStatsTracker dashboardStatsTracker;
     private final SubscriptionEventRepository subscriptionEventRepository;
     private final SubscriptionProductRepository subscriptionProductRepository;
     private final AppleJwtDecoder jwtDecoder;
@@ -261,6 +263,7 @@ public class AppleWebhookService {
             renewalOrder.setSourceEntry(originalOrder.getSourceEntry());
 
             orderRepository.insert(renewalOrder);
+            dashboardStatsTracker.recordCreated(renewalOrder);
             log.info("创建续费订单成功 - 订单号: {}, 订单ID: {}", renewalOrder.getOrderNo(), renewalOrder.getId());
 
             // Record processed transaction
@@ -303,11 +306,13 @@ public class AppleWebhookService {
             }
 
             // Mark order as refunded
+            String previousStatus = order.getStatus();
             order.setStatus("Refunded");
             order.setCancelDate(LocalDateTime.now());
             order.setCancelReason("Apple App Store Refund");
             order.setUpdateTime(LocalDateTime.now());
             orderRepository.updateById(order);
+            dashboardStatsTracker.recordStatusChange(order, previousStatus);
             log.info("订单 {} 已标记为已退款", order.getOrderNo());
 
             // Revoke user's subscription immediately
@@ -318,6 +323,7 @@ public class AppleWebhookService {
                 user.setIsSvip(false);
                 user.setSubscriptionEndDate(LocalDateTime.now()); // Expire immediately
                 userMapper.updateById(user);
+                subscriptionEntitlementCache.update(user);
                 log.warn("用户 {} 的订阅已因退款被撤销", userId);
             }
 
@@ -437,6 +443,7 @@ public class AppleWebhookService {
             user.setSubscriptionEndDate(finalEndDate);
             user.setSubscriptionPlanType(planType);
             userMapper.updateById(user);
+            subscriptionEntitlementCache.update(user);
 
             log.info("用户 {} 订阅状态已更新 - 最终到期时间: {}", userId, finalEndDate);
         }
@@ -0,0 +1,168 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.BookCounterDelta;
+import com.bookstore.repository.BookMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 书籍浏览量 / 点赞数写回聚合器 (write-behind)
+ *
+ * 每次阅读/点赞只在内存中累加 (每本书一个 LongAdder)，
+ * 定时将累计增量合并为一条批量 UPDATE 写回 books 表，
+ * 避免热门书籍在流量高峰时对同一行加锁串行更新。
+ * 应用关闭时会做最后一次写回。
+ */
+@Slf4j
+@Component
+public class BookCounterAggregator {
+
+    private final BookMapper bookMapper;
+
+    /**
+     * 单条 UPDATE 最多包含的书籍数
+     */
+    @Value("${book-counter.batch-size:500}")
+    private int batchSize;
+
+    // Keys are book ids; ids are not validated (likes are public), so adders idle for a whole interval are removed
+    private final Map<Long, LongAdder> pendingViews = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> pendingLikes = new ConcurrentHashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private final Counter flushedViews;
+    private final Counter flushedLikes;
+    private final Counter flushFailures;
+
+    public BookCounterAggregator(BookMapper bookMapper, MeterRegistry meterRegistry) {
+        this.bookMapper = bookMapper;
+        Gauge.builder("book.counter.pending", pendingViews, BookCounterAggregator::sum)
+                .tag("type", "views")
+                .description("Views increments not yet written to database")
+                .register(meterRegistry);
+        Gauge.builder("book.counter.pending", pendingLikes, BookCounterAggregator::sum)
+                .tag("type", "likes")
+                .description("Likes increments not yet written to database")
+                .register(meterRegistry);
+        this.flushedViews = Counter.builder("book.counter.flushed").tag("type", "views").register(meterRegistry);
+        this.flushedLikes = Counter.builder("book.counter.flushed").tag("type", "likes").register(meterRegistry);
+        this.flushFailures = Counter.builder("book.counter.flush.failures").register(meterRegistry);
+    }
+
+    public void incrementViews(Long bookId) {
+        if (bookId != null) {
+            pendingViews.computeIfAbsent(bookId, k -> new LongAdder()).increment();
+        }
+    }
+
+    public void incrementLikes(Long bookId) {
+        if (bookId != null) {
+            pendingLikes.computeIfAbsent(bookId, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * 定时写回，默认每 5 秒一次
+     */
+    @Scheduled(fixedDelayString = "${book-counter.flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用关闭，写回未持久化的书籍计数");
+        flush();
+    }
+
+    /**
+     * Drain pending deltas and write them in batched UPDATEs
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<BookCounterDelta> deltas = drain();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            for (int from = 0; from < deltas.size(); from += batchSize) {
+                List<BookCounterDelta> batch = deltas.subList(from, Math.min(from + batchSize, deltas.size()));
+                try {
+                    bookMapper.batchIncrementCounters(batch);
+                    for (BookCounterDelta delta : batch) {
+                        flushedViews.increment(delta.getViews());
+                        flushedLikes.increment(delta.getLikes());
+                    }
+                } catch (Exception e) {
+                    // Put the deltas back so the next flush retries them
+                    flushFailures.increment();
+                    log.error("书籍计数写回失败, 书籍数: {}", batch.size(), e);
+                    for (BookCounterDelta delta : batch) {
+                        restore(pendingViews, delta.getBookId(), delta.getViews());
+                        restore(pendingLikes, delta.getBookId(), delta.getLikes());
+                    }
+                }
+            }
+            log.debug("书籍计数写回完成, 书籍数: {}", deltas.size());
+        }
+    }
+
+    private List<BookCounterDelta> drain() {
+        Set<Long> bookIds = new HashSet<>(pendingViews.keySet());
+        bookIds.addAll(pendingLikes.keySet());
+
+        List<BookCounterDelta> deltas = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            long views = reset(pendingViews, bookId);
+            long likes = reset(pendingLikes, bookId);
+            if (views != 0 || likes != 0) {
+                deltas.add(new BookCounterDelta(bookId, views, likes));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Take the delta of one book; an adder with nothing to take is removed, so the maps only hold
+     * books counted since the previous flush
+     */
+    private static long reset(Map<Long, LongAdder> counters, Long bookId) {
+        LongAdder adder = counters.get(bookId);
+        if (adder == null) {
+            return 0;
+        }
+        long delta = adder.sumThenReset();
+        if (delta == 0) {
+            counters.remove(bookId, adder);
+        }
+        return delta;
+    }
+
+    private static void restore(Map<Long, LongAdder> counters, Long bookId, long delta) {
+        if (delta != 0) {
+            counters.computeIfAbsent(bookId, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    private static double sum(Map<Long, LongAdder> counters) {
+        long total = 0;
+        for (LongAdder adder : counters.values()) {
+            total += adder.sum();
+        }
+        return total;
+    }
+}
@@ -6,15 +6,21 @@ import com.bookstore.entity.BookPasscode;
 public interface BookPasscodeService extends IService<BookPasscode> {
 
     /**
-     * Generate a random passcode
+     * Assign a generated passcode and save, retrying with another code if uk_passcode rejects it
      */
-    String generatePasscode();
+    void saveWithGeneratedPasscode(BookPasscode passcode);
 
     /**
      * Validate passcode availability
      */
     boolean validatePasscode(String passcode, Long bookId);
 
+    /**
+     * Find the passcode of the book if it is valid, or null
+     * Served from PasscodeIndex: the entry carries no used / view counts
+     */
+    PasscodeIndex.PasscodeEntry findValidPasscode(String passcode, Long bookId);
+
     /**
      * Record passcode usage
      */
@@ -33,6 +39,7 @@ public interface BookPasscodeService extends IService<BookPasscode> {
     /**
      * Find valid passcode by code only (without bookId)
      * Used for passcode search in app
+     * Served from PasscodeIndex: the entry carries no used / view counts
      */
-    BookPasscode findValidPasscodeByCode(String passcode);
+    PasscodeIndex.PasscodeEntry findValidPasscodeByCode(String passcode);
 }
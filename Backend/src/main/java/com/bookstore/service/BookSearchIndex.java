@@ -0,0 +1,431 @@
+package com.bookstore.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bookstore.config.SchedulingConfig;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.BookTag;
+import com.bookstore.entity.Tag;
+import com.bookstore.repository.BookMapper;
+import com.bookstore.repository.BookTagRepository;
+import com.bookstore.repository.TagRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * 书籍全文搜索内存倒排索引
+ *
+ * 索引字段: 书名 / 作者 / 简介 / 标签名，按字段加权。
+ * - 中日韩文字使用 n-gram 切分（单字 + 双字），拉丁文字按单词切分并支持前缀匹配
+ * - 查询词之间为 AND 关系，按 权重 * idf 计算相关度排序
+ * - 书籍新增/修改/删除时增量更新；批量导入后标记重建；定期全量重建兜底其他节点的修改
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookSearchIndex {
+
+    private static final float WEIGHT_TITLE = 3.0f;
+    private static final float WEIGHT_AUTHOR = 2.0f;
+    private static final float WEIGHT_TAG = 1.5f;
+    private static final float WEIGHT_DESCRIPTION = 1.0f;
+
+    /**
+     * 仅前缀命中（非完整单词）时的权重折扣
+     */
+    private static final float PREFIX_MATCH_FACTOR = 0.5f;
+
+    /**
+     * 单个前缀最多展开的词数；超出时只展开包含书籍最多的词 (完整单词本身总是包含在内)，
+     * 只出现在少数书籍中的罕见词不参与该前缀的匹配，结果与遍历顺序无关
+     */
+    private static final int MAX_PREFIX_EXPANSION = 64;
+
+    private final BookMapper bookMapper;
+    private final BookTagRepository bookTagRepository;
+    private final TagRepository tagRepository;
+
+    @Value("${book-search.refresh-interval-ms:600000}")
+    private long refreshIntervalMs;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final Object writeLock = new Object();
+    private volatile Index index;
+
+    /**
+     * Search books ranked by relevance
+     *
+     * @param language only books of this language when not empty
+     * @param filter   extra condition applied before ranking, may be null
+     * @param limit    max results, or 0 for no limit
+     */
+    public List<Book> search(String keyword, String language, Predicate<Book> filter, int limit) {
+        List<QueryTerm> terms = tokenizeQuery(keyword);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        Index current = currentIndex();
+
+        Map<Long, Float> scores = null;
+        for (QueryTerm term : terms) {
+            Map<Long, Float> matches = current.match(term);
+            if (matches.isEmpty()) {
+                return List.of();
+            }
+            float idf = (float) Math.log(1 + (double) current.docs.size() / matches.size());
+            if (scores == null) {
+                scores = new HashMap<>();
+                for (Map.Entry<Long, Float> e : matches.entrySet()) {
+                    scores.put(e.getKey(), e.getValue() * idf);
+                }
+            } else {
+                // AND: keep only books matching every term
+                Map<Long, Float> next = new HashMap<>();
+                for (Map.Entry<Long, Float> e : scores.entrySet()) {
+                    Float weight = matches.get(e.getKey());
+                    if (weight != null) {
+                        next.put(e.getKey(), e.getValue() + weight * idf);
+                    }
+                }
+                scores = next;
+            }
+            if (scores.isEmpty()) {
+                return List.of();
+            }
+        }
+
+        boolean filterLanguage = language != null && !language.isEmpty();
+        List<Map.Entry<Long, Float>> ranked = new ArrayList<>();
+        Map<Long, Book> books = new HashMap<>();
+        for (Map.Entry<Long, Float> e : scores.entrySet()) {
+            IndexedBook doc = current.docs.get(e.getKey());
+            if (doc == null) {
+                // Removed concurrently
+                continue;
+            }
+            Book book = doc.book();
+            if (filterLanguage && !language.equals(book.getLanguage())) {
+                continue;
+            }
+            if (filter != null && !filter.test(book)) {
+                continue;
+            }
+            ranked.add(e);
+            books.put(e.getKey(), book);
+        }
+        ranked.sort(Map.Entry.<Long, Float>comparingByValue().reversed()
+                .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed()));
+
+        int size = limit > 0 ? Math.min(limit, ranked.size()) : ranked.size();
+        List<Book> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(books.get(ranked.get(i).getKey()));
+        }
+        return result;
+    }
+
+    /**
+     * Re-index one book after create / update / tag change (removes it if deleted)
+     */
+    public void upsert(Long bookId) {
+        Index current = index;
+        if (current == null || bookId == null) {
+            return;
+        }
+        Book book = bookMapper.selectById(bookId);
+        List<String> tags = book == null ? List.of() : loadTagNames(List.of(bookId)).getOrDefault(bookId, List.of());
+        synchronized (writeLock) {
+            current = index;
+            current.remove(bookId);
+            if (book != null) {
+                current.add(book, tags);
+            }
+        }
+    }
+
+    public void remove(Long bookId) {
+        if (index == null || bookId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            index.remove(bookId);
+        }
+    }
+
+    /**
+     * Mark index stale (e.g. after bulk import); rebuilt by the scheduled check
+     */
+    public void invalidate() {
+        dirty.set(true);
+    }
+
+    @Scheduled(fixedDelayString = "${book-search.rebuild-check-ms:5000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void rebuildIfStale() {
+        Index current = index;
+        boolean expired = current != null && System.currentTimeMillis() - current.builtAt > refreshIntervalMs;
+        if (current != null && (dirty.get() || expired)) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                // Keep serving the previous index, retry on next check
+                log.error("搜索索引重建失败", e);
+            }
+        }
+    }
+
+    /**
+     * Build a fresh index from all books and swap it in
+     */
+    public void rebuild() {
+        synchronized (writeLock) {
+            dirty.set(false);
+            long start = System.currentTimeMillis();
+
+            List<Book> books = bookMapper.selectList(null);
+            Map<Long, List<String>> tagNames = loadTagNames(null);
+
+            Index fresh = new Index();
+            for (Book book : books) {
+                fresh.add(book, tagNames.getOrDefault(book.getId(), List.of()));
+            }
+            index = fresh;
+            log.info("搜索索引重建完成, 书籍数: {}, 词项数: {}, 耗时: {} ms",
+                    books.size(), fresh.postings.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    private Index currentIndex() {
+        Index current = index;
+        if (current == null) {
+            synchronized (writeLock) {
+                if (index == null) {
+                    rebuild();
+                }
+                current = index;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Tag names per book, for the given books or all books when bookIds is null
+     */
+    private Map<Long, List<String>> loadTagNames(List<Long> bookIds) {
+        LambdaQueryWrapper<BookTag> query = new LambdaQueryWrapper<>();
+        if (bookIds != null) {
+            query.in(BookTag::getBookId, bookIds);
+        }
+        List<BookTag> bookTags = bookTagRepository.selectList(query);
+        if (bookTags.isEmpty()) {
+            return Map.of();
+        }
+        Map<Long, String> names = tagRepository.selectList(null).stream()
+                .filter(tag -> tag.getName() != null)
+                .collect(Collectors.toMap(Tag::getId, Tag::getName, (a, b) -> a));
+        Map<Long, List<String>> result = new HashMap<>();
+        for (BookTag bookTag : bookTags) {
+            String name = names.get(bookTag.getTagId());
+            if (name != null) {
+                result.computeIfAbsent(bookTag.getBookId(), k -> new ArrayList<>()).add(name);
+            }
+        }
+        return result;
+    }
+
+    // ==================== Tokenization ====================
+
+    /**
+     * Index-time tokens: CJK unigrams + bigrams, whole Latin words
+     */
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        for (Run run : splitRuns(text)) {
+            if (run.cjk()) {
+                String s = run.text();
+                int[] cps = s.codePoints().toArray();
+                for (int i = 0; i < cps.length; i++) {
+                    tokens.add(new String(cps, i, 1));
+                    if (i + 1 < cps.length) {
+                        tokens.add(new String(cps, i, 2));
+                    }
+                }
+            } else {
+                tokens.add(run.text());
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Query-time terms: CJK bigrams (unigram for a single character), Latin words as prefixes
+     */
+    static List<QueryTerm> tokenizeQuery(String keyword) {
+        List<QueryTerm> terms = new ArrayList<>();
+        if (keyword == null) {
+            return terms;
+        }
+        for (Run run : splitRuns(keyword)) {
+            if (run.cjk()) {
+                int[] cps = run.text().codePoints().toArray();
+                if (cps.length == 1) {
+                    terms.add(new QueryTerm(run.text(), false));
+                }
+                for (int i = 0; i + 1 < cps.length; i++) {
+                    terms.add(new QueryTerm(new String(cps, i, 2), false));
+                }
+            } else {
+                terms.add(new QueryTerm(run.text(), true));
+            }
+        }
+        return terms.stream().distinct().collect(Collectors.toList());
+    }
+
+    /**
+     * Split normalized text into CJK runs and Latin/digit word runs
+     */
+    private static List<Run> splitRuns(String text) {
+        List<Run> runs = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return runs;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder current = new StringBuilder();
+        boolean currentCjk = false;
+        for (int i = 0; i < normalized.length(); ) {
+            int cp = normalized.codePointAt(i);
+            i += Character.charCount(cp);
+            boolean cjk = isCjk(cp);
+            boolean word = cjk || Character.isLetterOrDigit(cp);
+            if (!word || (current.length() > 0 && cjk != currentCjk)) {
+                if (current.length() > 0) {
+                    runs.add(new Run(current.toString(), currentCjk));
+                    current.setLength(0);
+                }
+            }
+            if (word) {
+                current.appendCodePoint(cp);
+                currentCjk = cjk;
+            }
+        }
+        if (current.length() > 0) {
+            runs.add(new Run(current.toString(), currentCjk));
+        }
+        return runs;
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+
+    private record Run(String text, boolean cjk) {
+    }
+
+    record QueryTerm(String token, boolean prefix) {
+    }
+
+    private record IndexedBook(Book book, Set<String> tokens) {
+    }
+
+    // ==================== Index structure ====================
+
+    private static class Index {
+        // token -> (bookId -> weight); sorted so Latin prefixes can be range-scanned
+        final NavigableMap<String, Map<Long, Float>> postings = new ConcurrentSkipListMap<>();
+        final Map<Long, IndexedBook> docs = new ConcurrentHashMap<>();
+        final long builtAt = System.currentTimeMillis();
+
+        void add(Book book, List<String> tags) {
+            Map<String, Float> weights = new HashMap<>();
+            addField(weights, book.getTitle(), WEIGHT_TITLE);
+            addField(weights, book.getAuthor(), WEIGHT_AUTHOR);
+            addField(weights, book.getDescription(), WEIGHT_DESCRIPTION);
+            for (String tag : tags) {
+                addField(weights, tag, WEIGHT_TAG);
+            }
+            for (Map.Entry<String, Float> e : weights.entrySet()) {
+                postings.computeIfAbsent(e.getKey(), k -> new ConcurrentHashMap<>()).put(book.getId(), e.getValue());
+            }
+            docs.put(book.getId(), new IndexedBook(book, weights.keySet()));
+        }
+
+        void remove(Long bookId) {
+            IndexedBook old = docs.remove(bookId);
+            if (old == null) {
+                return;
+            }
+            for (String token : old.tokens()) {
+                postings.computeIfPresent(token, (k, ids) -> {
+                    ids.remove(bookId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+        }
+
+        Map<Long, Float> match(QueryTerm term) {
+            if (!term.prefix()) {
+                return postings.getOrDefault(term.token(), Map.of());
+            }
+            Map<Long, Float> result = new HashMap<>();
+            Map<String, Map<Long, Float>> expansion = postings.subMap(term.token(), true, term.token() + Character.MAX_VALUE, false);
+            for (Map.Entry<String, Map<Long, Float>> e : capExpansion(term.token(), expansion)) {
+                float factor = e.getKey().equals(term.token()) ? 1.0f : PREFIX_MATCH_FACTOR;
+                for (Map.Entry<Long, Float> p : e.getValue().entrySet()) {
+                    result.merge(p.getKey(), p.getValue() * factor, Math::max);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * The exact word plus the most frequent completions, at most MAX_PREFIX_EXPANSION in total
+         */
+        private static Collection<Map.Entry<String, Map<Long, Float>>> capExpansion(
+                String token, Map<String, Map<Long, Float>> expansion) {
+            if (expansion.size() <= MAX_PREFIX_EXPANSION) {
+                return expansion.entrySet();
+            }
+            // Book counts are copied first: postings change concurrently and the sort needs stable keys
+            List<Map.Entry<String, Map<Long, Float>>> entries = new ArrayList<>(expansion.size());
+            Map<String, Integer> bookCounts = new HashMap<>();
+            for (Map.Entry<String, Map<Long, Float>> e : expansion.entrySet()) {
+                entries.add(e);
+                bookCounts.put(e.getKey(), e.getKey().equals(token) ? Integer.MAX_VALUE : e.getValue().size());
+            }
+            // Exact word first, then by number of books, then alphabetically so the cut is deterministic
+            entries.sort(Comparator.<Map.Entry<String, Map<Long, Float>>>comparingInt(e -> bookCounts.get(e.getKey()))
+                    .reversed()
+                    .thenComparing(Map.Entry::getKey));
+            return entries.subList(0, Math.min(MAX_PREFIX_EXPANSION, entries.size()));
+        }
+
+        private static void addField(Map<String, Float> weights, String text, float weight) {
+            for (String token : tokenize(text)) {
+                weights.merge(token, weight, Float::sum);
+            }
+        }
+    }
+}
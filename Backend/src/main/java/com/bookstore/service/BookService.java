@@ -1,6 +1,7 @@
 package com.bookstore.service;
 
 import com.baomidou.mybatisplus.extension.service.IService;
+import com.bookstore.dto.HomeFeedPageDTO;
 import com.bookstore.dto.ReaderDataDTO;
 import com.bookstore.entity.Book;
 import com.bookstore.vo.BookVO;
@@ -10,8 +11,20 @@ import java.util.Map;
 
 public interface BookService extends IService<Book> {
     Map<String, List<BookVO>> getHomeBooks(Integer page, Integer pageSize, String language);
+
+    /**
+     * Cursor-based home feed
+     * Without shelf: first page of every shelf; with shelf: the page after cursor of that shelf
+     */
+    Map<String, HomeFeedPageDTO> getHomeFeed(String language, String shelf, String cursor, Integer pageSize);
     BookVO getBookDetails(Long id);
     List<BookVO> searchBooks(String keyword);
+
+    /**
+     * Full-text search over title / author / description / tags, ranked by relevance
+     * @param language only books of this language when not empty
+     */
+    List<BookVO> searchBooks(String keyword, String language);
     void likeBook(Long id);
     void incrementViews(Long id);
 
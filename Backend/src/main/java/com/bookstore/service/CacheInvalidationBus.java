@@ -0,0 +1,30 @@
+package com.bookstore.service;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 跨节点缓存失效总线
+ *
+ * 本节点清除缓存后发布失效事件，其他节点收到后清除各自的本地缓存。
+ * 实现通过 cache-invalidation.type 选择：database (默认，基于失效日志表轮询) / local (单节点)。
+ */
+public interface CacheInvalidationBus {
+
+    String TYPE_ALL_BOOKS = "all_books";
+    String TYPE_BOOK = "book";
+    String TYPE_CHAPTERS = "chapters";
+    String TYPE_CHAPTER_CONTENT = "chapter_content";
+    String TYPE_HOME = "home";
+    String TYPE_USER_ENTITLEMENT = "user_entitlement";
+    String TYPE_PASSCODE = "passcode";
+
+    /**
+     * Broadcast an invalidation event to the other nodes
+     */
+    void publish(String eventType, Long targetId);
+
+    /**
+     * Register a listener for events published by other nodes
+     */
+    void subscribe(BiConsumer<String, Long> listener);
+}
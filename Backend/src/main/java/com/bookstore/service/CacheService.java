@@ -1,5 +1,10 @@
 package com.bookstore.service;
 
+import com.bookstore.dto.CachePolicyDTO;
+import com.bookstore.dto.CacheStatsDTO;
+
+import java.util.List;
+
 /**
  * 缓存管理服务接口
  * 用于在数据更新时清除相关缓存
@@ -23,6 +28,7 @@ public interface CacheService {
 
     /**
      * 清除指定章节内容缓存
+     * 包含该章节内容的阅读页数据 (readerData) 以 bookId 为 key，由 evictChapterCache 清除
      */
     void evictChapterContentCache(Long chapterId);
 
@@ -30,4 +36,16 @@ public interface CacheService {
      * 清除首页书籍列表缓存
      */
     void evictHomeBooksCache();
+
+    /**
+     * 查看各缓存实际生效的策略和当前占用
+     */
+    List<CachePolicyDTO> describeCaches();
+
+    /**
+     * 各缓存的命中统计、热点 key 和内存估算
+     *
+     * @param topKeys 每个缓存返回的热点 key 数量
+     */
+    List<CacheStatsDTO> getCacheStats(int topKeys);
 }
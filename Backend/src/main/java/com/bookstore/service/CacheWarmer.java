@@ -0,0 +1,188 @@
+package com.bookstore.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bookstore.dto.TopBookDTO;
+import com.bookstore.entity.Language;
+import com.bookstore.repository.BookMapper;
+import com.bookstore.repository.LanguageRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 启动预热
+ *
+ * 应用启动完成前 (ApplicationRunner 阶段，应用尚未进入 ready 状态) 预加载:
+ * - 每个启用语言 (及不限语言) 的首页书架
+ * - 浏览量前 N 本书的书籍详情、章节目录和阅读页数据
+ * 书籍预热使用固定大小线程池限制并发，避免压垮 MySQL；整体超过 timeout 后放弃剩余任务。
+ * 预热完成前 /actuator/health 返回 OUT_OF_SERVICE，耗时和覆盖率通过 cache.warmup.* 指标上报。
+ */
+@Slf4j
+@Component
+public class CacheWarmer implements ApplicationRunner, HealthIndicator {
+
+    private static final int HOME_PAGE_SIZE = 20;
+
+    private final BookService bookService;
+    private final ChapterCacheService chapterCacheService;
+    private final ReaderDataCacheService readerDataCacheService;
+    private final BookMapper bookMapper;
+    private final LanguageRepository languageRepository;
+
+    @Value("${cache-warmup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${cache-warmup.top-books:100}")
+    private int topBooks;
+
+    @Value("${cache-warmup.parallelism:4}")
+    private int parallelism;
+
+    @Value("${cache-warmup.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    private volatile boolean finished;
+    private final AtomicLong durationMs = new AtomicLong();
+    private final AtomicInteger languagesWarmed = new AtomicInteger();
+    private final AtomicInteger booksTargeted = new AtomicInteger();
+    private final AtomicInteger booksWarmed = new AtomicInteger();
+    private final AtomicInteger booksFailed = new AtomicInteger();
+
+    public CacheWarmer(BookService bookService, ChapterCacheService chapterCacheService,
+                       ReaderDataCacheService readerDataCacheService, BookMapper bookMapper,
+                       LanguageRepository languageRepository, MeterRegistry meterRegistry) {
+        this.bookService = bookService;
+        this.chapterCacheService = chapterCacheService;
+        this.readerDataCacheService = readerDataCacheService;
+        this.bookMapper = bookMapper;
+        this.languageRepository = languageRepository;
+        Gauge.builder("cache.warmup.duration", durationMs, AtomicLong::get)
+                .baseUnit("milliseconds")
+                .description("Startup cache warm-up duration")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.languages", languagesWarmed, AtomicInteger::get)
+                .description("Languages whose home shelves were preloaded")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.books", booksWarmed, AtomicInteger::get)
+                .tag("result", "warmed")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.books", booksFailed, AtomicInteger::get)
+                .tag("result", "failed")
+                .register(meterRegistry);
+        Gauge.builder("cache.warmup.coverage", this, CacheWarmer::coverage)
+                .description("Share of top books preloaded at startup")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            finished = true;
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            warmHomeShelves();
+            warmTopBooks(start + TimeUnit.SECONDS.toMillis(timeoutSeconds));
+        } catch (Exception e) {
+            // Warm-up is best effort, never block startup on it
+            log.error("缓存预热失败", e);
+        } finally {
+            durationMs.set(System.currentTimeMillis() - start);
+            finished = true;
+            log.info("缓存预热完成, 耗时 {}ms, 语言 {}, 书籍 {}/{} (失败 {})", durationMs.get(),
+                    languagesWarmed.get(), booksWarmed.get(), booksTargeted.get(), booksFailed.get());
+        }
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder builder = finished ? Health.up() : Health.outOfService();
+        return builder
+                .withDetail("durationMs", durationMs.get())
+                .withDetail("languages", languagesWarmed.get())
+                .withDetail("books", booksWarmed.get())
+                .withDetail("booksTargeted", booksTargeted.get())
+                .build();
+    }
+
+    private void warmHomeShelves() {
+        List<String> languages = new ArrayList<>();
+        // 不限语言的首页
+        languages.add(null);
+        languageRepository.selectList(new LambdaQueryWrapper<Language>()
+                        .eq(Language::getIsActive, true)
+                        .orderByAsc(Language::getSortOrder))
+                .forEach(language -> languages.add(language.getCode()));
+        for (String language : languages) {
+            bookService.getHomeBooks(1, HOME_PAGE_SIZE, language);
+            languagesWarmed.incrementAndGet();
+        }
+    }
+
+    private void warmTopBooks(long deadline) throws InterruptedException {
+        List<TopBookDTO> books = bookMapper.selectTopBooksByViews(topBooks);
+        booksTargeted.set(books.size());
+        if (books.isEmpty()) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, parallelism));
+        try {
+            List<Future<?>> futures = new ArrayList<>(books.size());
+            for (TopBookDTO book : books) {
+                futures.add(executor.submit(() -> warmBook(book.getBookId())));
+            }
+            for (Future<?> future : futures) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    log.warn("缓存预热超时, 跳过剩余书籍");
+                    break;
+                }
+                try {
+                    future.get(remaining, TimeUnit.MILLISECONDS);
+                } catch (Exception e) {
+                    // Counted in warmBook or abandoned by the timeout
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void warmBook(Long bookId) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        try {
+            // Through the cached beans so entries land in the caches
+            bookService.getBookDetails(bookId);
+            chapterCacheService.getChapterIndex(bookId);
+            readerDataCacheService.getReaderSnapshot(bookId);
+            booksWarmed.incrementAndGet();
+        } catch (Exception e) {
+            booksFailed.incrementAndGet();
+            log.warn("预热书籍 {} 失败: {}", bookId, e.getMessage());
+        }
+    }
+
+    private double coverage() {
+        int targeted = booksTargeted.get();
+        return targeted == 0 ? (finished ? 1.0 : 0.0) : (double) booksWarmed.get() / targeted;
+    }
+}
@@ -0,0 +1,45 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ChapterVersionDTO;
+import com.bookstore.vo.ChapterVO;
+
+import java.util.List;
+
+/**
+ * 章节缓存服务接口
+ * 缓存与用户无关的章节数据，访问权限由调用方按请求单独判断
+ */
+public interface ChapterCacheService {
+
+    /**
+     * Get chapter body (with content) by chapter id, shared by all users.
+     * The returned VO is a cached instance and must not be modified;
+     * canAccess is left unset.
+     *
+     * @throws com.bookstore.exception.ChapterNotFoundException if the chapter does not exist
+     */
+    ChapterVO getChapter(Long chapterId);
+
+    /**
+     * Get table of contents of a book ordered by orderNum, without content.
+     * The returned list and its VOs are cached instances and must not be modified;
+     * canAccess is left unset.
+     */
+    List<ChapterVO> getChapterIndex(Long bookId);
+
+    /**
+     * Get bodies of consecutive chapters of a book, given their index entries in order.
+     * Cached bodies are served from the chapter content cache; misses are loaded with a
+     * single range query on (book_id, order_num) and put into the cache.
+     * The returned VOs are cached instances and must not be modified.
+     */
+    List<ChapterVO> getChapters(Long bookId, List<ChapterVO> indexEntries);
+
+    /**
+     * Get chapter validator metadata (bookId, isFree, updatedAt) without loading content.
+     * Used to answer conditional GETs; evicted together with the chapter content cache.
+     *
+     * @throws com.bookstore.exception.ChapterNotFoundException if the chapter does not exist
+     */
+    ChapterVersionDTO getChapterVersion(Long chapterId);
+}
@@ -12,4 +12,14 @@ public interface ChapterService extends IService<Chapter> {
     List<ChapterVO> getChaptersByBookId(Long bookId, Boolean includeFirstChapter, Long userId);
     ChapterVO getChapterDetails(Long id);
     ChapterVO getChapterDetails(Long id, Long userId);
+
+    /**
+     * Get a run of consecutive chapters with content for reader prefetch.
+     * Starts at fromChapterId, or the first chapter with orderNum >= fromOrderNum,
+     * or the first chapter; stops at maxChapters, at the byte budget (the first chapter
+     * is always returned), or at the first chapter the user cannot access, which is
+     * returned without content and canAccess = false.
+     */
+    List<ChapterVO> getChapterRun(Long bookId, Long fromChapterId, Integer fromOrderNum,
+                                  int maxChapters, int maxBytes, Long userId);
 }
@@ -0,0 +1,247 @@
+package com.bookstore.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.bookstore.config.SchedulingConfig;
+import com.bookstore.dto.DashboardStatsDTO;
+import com.bookstore.entity.Order;
+import com.bookstore.entity.User;
+import com.bookstore.repository.BookMapper;
+import com.bookstore.repository.OrderRepository;
+import com.bookstore.repository.UserMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+/**
+ * 管理后台仪表盘统计
+ *
+ * 订单数、总收益、今日收益在内存中维护累计值，订单创建 / 变为已支付 / 退款 / 删除时增量更新
+ * (在事务中调用时延迟到事务提交之后)，仪表盘读取时直接返回，不再把所有已支付订单加载到内存求和。
+ * 用户数、书籍数只由后台对账任务刷新。
+ *
+ * 后台对账任务定期用 SQL 聚合重新计算所有统计值并覆盖内存中的累计值：
+ * - 修正其他节点产生的订单变化，以及绕过本类直接修改 orders 表造成的偏差
+ * - 对账查询期间发生的增量会叠加在查询结果上；与查询同时提交的订单可能被重复计入，下一次对账修正
+ */
+@Slf4j
+@Component
+public class DashboardStatsTracker {
+
+    private static final String STATUS_PAID = "Paid";
+
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final OrderRepository orderRepository;
+
+    // Running totals, guarded by this
+    private long totalOrders;
+    private BigDecimal totalRevenue = BigDecimal.ZERO;
+    private LocalDate today = LocalDate.now();
+    private BigDecimal todayRevenue = BigDecimal.ZERO;
+    private long totalUsers;
+    private long activeUsers;
+    private long totalBooks;
+    private boolean initialized;
+
+    // Deltas applied while a reconciliation query is running, re-applied on top of its result
+    private boolean reconciling;
+    private long reconcileOrders;
+    private BigDecimal reconcileRevenue = BigDecimal.ZERO;
+    private BigDecimal reconcileTodayRevenue = BigDecimal.ZERO;
+
+    private final Object reconcileLock = new Object();
+
+    private volatile double lastRevenueDrift;
+    private final Counter reconcileFailures;
+
+    public DashboardStatsTracker(UserMapper userMapper, BookMapper bookMapper, OrderRepository orderRepository,
+                                 MeterRegistry meterRegistry) {
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.orderRepository = orderRepository;
+        Gauge.builder("dashboard.stats.revenue.drift", this, tracker -> tracker.lastRevenueDrift)
+                .description("Difference between the running revenue total and the database at the last reconciliation")
+                .register(meterRegistry);
+        this.reconcileFailures = Counter.builder("dashboard.stats.reconcile.failures").register(meterRegistry);
+    }
+
+    /**
+     * Current statistics; reconciles first if nothing was loaded yet
+     */
+    public DashboardStatsDTO getStats() {
+        boolean loaded;
+        synchronized (this) {
+            loaded = initialized;
+        }
+        if (!loaded) {
+            reconcile();
+        }
+        synchronized (this) {
+            rollDay();
+            DashboardStatsDTO stats = new DashboardStatsDTO();
+            stats.setTotalUsers(totalUsers);
+            stats.setActiveUsers(activeUsers);
+            stats.setTotalBooks(totalBooks);
+            stats.setTotalOrders(totalOrders);
+            stats.setTotalRevenue(totalRevenue);
+            stats.setTodayRevenue(todayRevenue);
+            return stats;
+        }
+    }
+
+    /**
+     * An order was inserted
+     */
+    public void recordCreated(Order order) {
+        boolean paid = STATUS_PAID.equals(order.getStatus());
+        BigDecimal amount = amountOf(order);
+        LocalDate createdOn = createdOn(order);
+        runAfterCommit(() -> apply(1, paid ? amount : BigDecimal.ZERO, createdOn));
+    }
+
+    /**
+     * The status of an order changed from previousStatus to order.getStatus()
+     */
+    public void recordStatusChange(Order order, String previousStatus) {
+        boolean wasPaid = STATUS_PAID.equals(previousStatus);
+        boolean isPaid = STATUS_PAID.equals(order.getStatus());
+        if (wasPaid == isPaid) {
+            return;
+        }
+        BigDecimal amount = isPaid ? amountOf(order) : amountOf(order).negate();
+        LocalDate createdOn = createdOn(order);
+        runAfterCommit(() -> apply(0, amount, createdOn));
+    }
+
+    /**
+     * An order was deleted
+     */
+    public void recordDeleted(Order order) {
+        BigDecimal amount = STATUS_PAID.equals(order.getStatus()) ? amountOf(order).negate() : BigDecimal.ZERO;
+        LocalDate createdOn = createdOn(order);
+        runAfterCommit(() -> apply(-1, amount, createdOn));
+    }
+
+    /**
+     * 定时对账，默认每 5 分钟一次 (启动时立即执行第一次)
+     */
+    @Scheduled(fixedDelayString = "${dashboard-stats.reconcile-interval-ms:300000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void scheduledReconcile() {
+        try {
+            reconcile();
+        } catch (Exception e) {
+            reconcileFailures.increment();
+            log.error("仪表盘统计对账失败", e);
+        }
+    }
+
+    /**
+     * Recompute every statistic with SQL aggregates and replace the running totals
+     */
+    public void reconcile() {
+        synchronized (reconcileLock) {
+            LocalDate day;
+            synchronized (this) {
+                rollDay();
+                day = today;
+                reconciling = true;
+                reconcileOrders = 0;
+                reconcileRevenue = BigDecimal.ZERO;
+                reconcileTodayRevenue = BigDecimal.ZERO;
+            }
+            try {
+                long users = userMapper.selectCount(null);
+                long active = userMapper.selectCount(new QueryWrapper<User>().eq("subscription_status", "active"));
+                long books = bookMapper.selectCount(null);
+                long orders = orderRepository.selectCount(null);
+                BigDecimal revenue = nullToZero(orderRepository.sumPaidAmount());
+                BigDecimal dayRevenue = nullToZero(orderRepository.sumPaidAmountBetween(
+                        day.atStartOfDay(), day.atTime(LocalTime.MAX)));
+
+                synchronized (this) {
+                    BigDecimal reconciledRevenue = revenue.add(reconcileRevenue);
+                    if (initialized) {
+                        lastRevenueDrift = totalRevenue.subtract(reconciledRevenue).doubleValue();
+                        if (lastRevenueDrift != 0) {
+                            log.info("仪表盘总收益对账修正: {} -> {}", totalRevenue, reconciledRevenue);
+                        }
+                    }
+                    totalUsers = users;
+                    activeUsers = active;
+                    totalBooks = books;
+                    totalOrders = orders + reconcileOrders;
+                    totalRevenue = reconciledRevenue;
+                    // A day rollover during the query invalidates the day total
+                    todayRevenue = day.equals(today) ? dayRevenue.add(reconcileTodayRevenue) : reconcileTodayRevenue;
+                    initialized = true;
+                }
+            } finally {
+                synchronized (this) {
+                    reconciling = false;
+                }
+            }
+        }
+    }
+
+    private synchronized void apply(long orders, BigDecimal revenue, LocalDate createdOn) {
+        rollDay();
+        BigDecimal dayRevenue = today.equals(createdOn) ? revenue : BigDecimal.ZERO;
+        totalOrders += orders;
+        totalRevenue = totalRevenue.add(revenue);
+        todayRevenue = todayRevenue.add(dayRevenue);
+        if (reconciling) {
+            reconcileOrders += orders;
+            reconcileRevenue = reconcileRevenue.add(revenue);
+            reconcileTodayRevenue = reconcileTodayRevenue.add(dayRevenue);
+        }
+    }
+
+    /**
+     * Start a new day total at midnight (today's revenue counts orders created today)
+     */
+    private void rollDay() {
+        LocalDate now = LocalDate.now();
+        if (!now.equals(today)) {
+            today = now;
+            todayRevenue = BigDecimal.ZERO;
+            reconcileTodayRevenue = BigDecimal.ZERO;
+        }
+    }
+
+    private static BigDecimal amountOf(Order order) {
+        return nullToZero(order.getAmount());
+    }
+
+    private static LocalDate createdOn(Order order) {
+        LocalDateTime createTime = order.getCreateTime();
+        return createTime == null ? LocalDate.now() : createTime.toLocalDate();
+    }
+
+    private static BigDecimal nullToZero(BigDecimal value) {
+        return value == null ? BigDecimal.ZERO : value;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
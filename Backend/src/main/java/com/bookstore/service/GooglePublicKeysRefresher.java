@@ -0,0 +1,68 @@
+package com.bookstore.service;
+
+import com.bookstore.config.SchedulingConfig;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Google 公钥证书提前刷新
+ *
+ * GooglePublicKeysManager 按响应的 Cache-Control 缓存证书，过期后由下一次登录请求同步下载。
+ * 这里定期检查，证书在 refresh-ahead-ms 内即将过期时在后台提前刷新；
+ * 刷新失败时继续使用当前证书，过期后仍由 GooglePublicKeysManager 自行重试。
+ */
+@Slf4j
+@Component
+public class GooglePublicKeysRefresher {
+
+    private final GooglePublicKeysManager publicKeysManager;
+
+    /**
+     * 距离证书过期不足该时间时提前刷新，默认 30 分钟
+     */
+    @Value("${google.signin.certs-refresh-ahead-ms:1800000}")
+    private long refreshAheadMs;
+
+    private final Counter refreshSuccess;
+    private final Counter refreshFailure;
+
+    public GooglePublicKeysRefresher(GooglePublicKeysManager publicKeysManager, MeterRegistry meterRegistry) {
+        this.publicKeysManager = publicKeysManager;
+        this.refreshSuccess = Counter.builder("google.certs.refresh").tag("result", "success").register(meterRegistry);
+        this.refreshFailure = Counter.builder("google.certs.refresh").tag("result", "failure").register(meterRegistry);
+        Gauge.builder("google.certs.expires.seconds", publicKeysManager,
+                        GooglePublicKeysRefresher::secondsUntilExpiry)
+                .description("Seconds until the cached Google public certificates expire")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 定时检查，默认每分钟一次 (启动时立即下载第一次)
+     */
+    @Scheduled(fixedDelayString = "${google.signin.certs-check-interval-ms:60000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void refreshIfExpiring() {
+        if (publicKeysManager.getExpirationTimeMilliseconds() - System.currentTimeMillis() > refreshAheadMs) {
+            return;
+        }
+        try {
+            publicKeysManager.refresh();
+            refreshSuccess.increment();
+            log.debug("Google 公钥证书已刷新, 数量: {}", publicKeysManager.getPublicKeys().size());
+        } catch (Exception e) {
+            refreshFailure.increment();
+            log.warn("Google 公钥证书刷新失败, 继续使用当前证书: {}", e.getMessage());
+        }
+    }
+
+    private static double secondsUntilExpiry(GooglePublicKeysManager manager) {
+        long expiresAt = manager.getExpirationTimeMilliseconds();
+        return expiresAt == 0 ? Double.NaN : (expiresAt - System.currentTimeMillis()) / 1000.0;
+    }
+}
@@ -37,6 +37,8 @@ public class GoogleWebhookService {
 
     private final OrderRepository orderRepository;
     private final UserMapper userMapper;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
+    private final DashboardStatsTracker dashboardStatsTracker;
     private final SubscriptionEventRepository subscriptionEventRepository;
     private final ProcessedTransactionRepository processedTransactionRepository;
     private final SubscriptionProductRepository subscriptionProductRepository;
@@ -235,6 +237,7 @@ public class GoogleWebhookService {
             renewalOrder.setSourceEntry(originalOrder.getSourceEntry());
 
             orderRepository.insert(renewalOrder);
+            dashboardStatsTracker.recordCreated(renewalOrder);
             log.info("创建续费订单成功 - 订单号: {}, 订单ID: {}", renewalOrder.getOrderNo(), renewalOrder.getId());
 
             // Record processed transaction
@@ -333,11 +336,13 @@ public class GoogleWebhookService {
             }
 
             // Mark order as refunded
+            String previousStatus = order.getStatus();
             order.setStatus("Refunded");
             order.setCancelDate(LocalDateTime.now());
             order.setCancelReason("Google Play Refund/Revoke");
             order.setUpdateTime(LocalDateTime.now());
             orderRepository.updateById(order);
+            dashboardStatsTracker.recordStatusChange(order, previousStatus);
             log.info("订单 {} 已标记为已退款", order.getOrderNo());
 
             // Revoke user's subscription immediately
@@ -348,6 +353,7 @@ public class GoogleWebhookService {
                 user.setIsSvip(false);
                 user.setSubscriptionEndDate(LocalDateTime.now()); // Expire immediately
                 userMapper.updateById(user);
+                subscriptionEntitlementCache.update(user);
                 log.warn("用户 {} 的订阅已因退款被撤销", userId);
             }
 
@@ -415,6 +421,7 @@ public class GoogleWebhookService {
                         user.setSubscriptionStatus("expired");
                         user.setIsSvip(false);
                         userMapper.updateById(user);
+                        subscriptionEntitlementCache.update(user);
                         log.info("用户 {} 订阅已过期 ({}), SVIP 权限已撤销",
                             userId, isPrepaid ? "预付费" : "自动续期");
                     } else {
@@ -542,6 +549,7 @@ public class GoogleWebhookService {
             user.setSubscriptionEndDate(finalEndDate);
             user.setSubscriptionPlanType(planType);
             userMapper.updateById(user);
+            subscriptionEntitlementCache.update(user);
 
             log.info("用户 {} 订阅状态已更新 - 最终到期时间: {}", userId, finalEndDate);
         }
@@ -0,0 +1,330 @@
+package com.bookstore.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bookstore.config.SchedulingConfig;
+import com.bookstore.dto.HomeFeedPageDTO;
+import com.bookstore.entity.Book;
+import com.bookstore.entity.BookCategory;
+import com.bookstore.repository.BookCategoryRepository;
+import com.bookstore.repository.BookMapper;
+import com.bookstore.vo.BookVO;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * 首页书架预计算引擎
+ *
+ * 在内存中为每种语言（以及不限语言）维护 hot / new / male / female 四个书架的有序书籍列表，
+ * 任意页通过切片返回，不再对数据库执行 LIMIT ... OFFSET 查询。
+ * - 书籍增删改后由 CacheService 调用 onBookChanged()，只替换包含该书籍的书架列表
+ * - 批量导入后调用 invalidate() 标记，定时任务在数秒内全量重建
+ * - 另外按 refresh-interval 定期全量重建，兜底其他节点或直接改库带来的变化
+ * - 同时支持基于 (createdAt, id) 的游标分页
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HomeFeedEngine {
+
+    public static final String SHELF_HOT = "hot";
+    public static final String SHELF_NEW = "new";
+    public static final String SHELF_MALE = "male";
+    public static final String SHELF_FEMALE = "female";
+    public static final List<String> SHELVES = List.of(SHELF_HOT, SHELF_NEW, SHELF_MALE, SHELF_FEMALE);
+
+    private static final String ALL_LANGUAGES = "all";
+
+    /**
+     * 每页最多返回的书籍数，pageSize 超出 [1, MAX_PAGE_SIZE] 时按边界处理
+     */
+    private static final int MAX_PAGE_SIZE = 100;
+
+    // Same ordering as the SQL it replaces: created_at DESC, id DESC as tie-breaker
+    private static final Comparator<FeedEntry> FEED_ORDER = Comparator
+            .comparingLong(FeedEntry::createdAt).reversed()
+            .thenComparing(Comparator.comparingLong(FeedEntry::id).reversed());
+
+    private final BookMapper bookMapper;
+    private final BookCategoryRepository bookCategoryRepository;
+
+    @Value("${home-feed.refresh-interval-ms:300000}")
+    private long refreshIntervalMs;
+
+    private final AtomicBoolean dirty = new AtomicBoolean(false);
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot;
+
+    /**
+     * Get one page of every shelf (offset pagination, page starts at 1)
+     */
+    public Map<String, List<BookVO>> getPage(String language, int page, int pageSize) {
+        Snapshot current = currentSnapshot();
+        pageSize = clampPageSize(pageSize);
+        long offset = (long) Math.max(page - 1, 0) * pageSize;
+        Map<String, List<BookVO>> result = new HashMap<>();
+        for (String shelf : SHELVES) {
+            List<FeedEntry> entries = current.shelf(language, shelf);
+            int from = (int) Math.min(offset, entries.size());
+            int to = Math.min(from + pageSize, entries.size());
+            result.put(shelf, toBooks(entries.subList(from, to)));
+        }
+        return result;
+    }
+
+    /**
+     * Get the page of a shelf right after the given cursor (null cursor = first page)
+     */
+    public HomeFeedPageDTO getPageAfter(String language, String shelf, String cursor, int pageSize) {
+        List<FeedEntry> entries = currentSnapshot().shelf(language, shelf);
+        pageSize = clampPageSize(pageSize);
+        int from = cursor == null || cursor.isEmpty() ? 0 : indexAfter(entries, decodeCursor(cursor));
+        int to = Math.min(from + pageSize, entries.size());
+
+        HomeFeedPageDTO dto = new HomeFeedPageDTO();
+        dto.setBooks(toBooks(entries.subList(from, to)));
+        dto.setHasMore(to < entries.size());
+        dto.setNextCursor(to > from ? encodeCursor(entries.get(to - 1)) : cursor);
+        return dto;
+    }
+
+    private static int clampPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * Mark shelves stale (e.g. after bulk import); rebuilt by the scheduled check
+     */
+    public void invalidate() {
+        dirty.set(true);
+    }
+
+    /**
+     * Re-place one book after create / update / delete.
+     * Only the shelf lists that contain the book (before or after the change) are replaced.
+     */
+    public void onBookChanged(Long bookId) {
+        if (snapshot == null || bookId == null) {
+            return;
+        }
+        Book book = bookMapper.selectById(bookId);
+        synchronized (rebuildLock) {
+            Snapshot current = snapshot;
+            if (current == null) {
+                return;
+            }
+            FeedEntry entry = book != null && "published".equals(book.getStatus()) ? toEntry(book) : null;
+
+            Map<String, Map<String, List<FeedEntry>>> shelves = new HashMap<>(current.shelves());
+            if (entry != null) {
+                shelves.putIfAbsent(ALL_LANGUAGES, Map.of());
+                if (book.getLanguage() != null && !book.getLanguage().isEmpty()) {
+                    shelves.putIfAbsent(book.getLanguage(), Map.of());
+                }
+            }
+            for (Map.Entry<String, Map<String, List<FeedEntry>>> language : shelves.entrySet()) {
+                boolean languageMatches = entry != null
+                        && (ALL_LANGUAGES.equals(language.getKey()) || language.getKey().equals(book.getLanguage()));
+                Map<String, List<FeedEntry>> byShelf = new HashMap<>(language.getValue());
+                for (String shelf : SHELVES) {
+                    boolean belongs = languageMatches && current.belongs(book, shelf);
+                    List<FeedEntry> entries = byShelf.getOrDefault(shelf, List.of());
+                    List<FeedEntry> updated = replaceEntry(entries, bookId, belongs ? entry : null);
+                    if (updated != entries) {
+                        byShelf.put(shelf, updated);
+                    }
+                }
+                language.setValue(byShelf);
+            }
+
+            snapshot = new Snapshot(shelves, current.maleCategoryIds(), current.femaleCategoryIds(), current.builtAt());
+            log.debug("首页书架已更新书籍 {}", bookId);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${home-feed.rebuild-check-ms:2000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void rebuildIfStale() {
+        Snapshot current = snapshot;
+        boolean expired = current != null && System.currentTimeMillis() - current.builtAt() > refreshIntervalMs;
+        if (current != null && (dirty.get() || expired)) {
+            try {
+                rebuild();
+            } catch (Exception e) {
+                // Keep serving the previous snapshot, retry on next check
+                log.error("首页书架重建失败", e);
+            }
+        }
+    }
+
+    /**
+     * Reload all published books and rebuild every shelf list
+     */
+    public void rebuild() {
+        synchronized (rebuildLock) {
+            dirty.set(false);
+            long start = System.currentTimeMillis();
+
+            Set<Long> maleCategoryIds = categoryIds("Male");
+            Set<Long> femaleCategoryIds = categoryIds("Female");
+
+            List<Book> books = bookMapper.selectList(new LambdaQueryWrapper<Book>()
+                    .eq(Book::getStatus, "published"));
+
+            Map<String, Map<String, List<FeedEntry>>> shelves = new HashMap<>();
+            for (Book book : books) {
+                FeedEntry entry = toEntry(book);
+                List<String> languages = book.getLanguage() == null || book.getLanguage().isEmpty()
+                        ? List.of(ALL_LANGUAGES)
+                        : List.of(ALL_LANGUAGES, book.getLanguage());
+                for (String language : languages) {
+                    Map<String, List<FeedEntry>> byShelf = shelves.computeIfAbsent(language, k -> new HashMap<>());
+                    if (Boolean.TRUE.equals(book.getIsHot())) {
+                        byShelf.computeIfAbsent(SHELF_HOT, k -> new ArrayList<>()).add(entry);
+                    }
+                    byShelf.computeIfAbsent(SHELF_NEW, k -> new ArrayList<>()).add(entry);
+                    if (book.getCategoryId() != null && maleCategoryIds.contains(book.getCategoryId())) {
+                        byShelf.computeIfAbsent(SHELF_MALE, k -> new ArrayList<>()).add(entry);
+                    }
+                    if (book.getCategoryId() != null && femaleCategoryIds.contains(book.getCategoryId())) {
+                        byShelf.computeIfAbsent(SHELF_FEMALE, k -> new ArrayList<>()).add(entry);
+                    }
+                }
+            }
+            shelves.values().forEach(byShelf -> byShelf.replaceAll((shelf, entries) -> {
+                entries.sort(FEED_ORDER);
+                return Collections.unmodifiableList(entries);
+            }));
+
+            snapshot = new Snapshot(shelves, maleCategoryIds, femaleCategoryIds, System.currentTimeMillis());
+            log.info("首页书架重建完成, 书籍数: {}, 语言数: {}, 耗时: {} ms",
+                    books.size(), shelves.size() - 1, System.currentTimeMillis() - start);
+        }
+    }
+
+    private Snapshot currentSnapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (rebuildLock) {
+                if (snapshot == null) {
+                    rebuild();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Copy of the list without the book and with the new entry at its sorted position;
+     * returns the same list when nothing changes
+     */
+    private List<FeedEntry> replaceEntry(List<FeedEntry> entries, Long bookId, FeedEntry entry) {
+        boolean present = entries.stream().anyMatch(e -> e.id() == bookId);
+        if (!present && entry == null) {
+            return entries;
+        }
+        List<FeedEntry> updated = new ArrayList<>(entries.size() + 1);
+        for (FeedEntry e : entries) {
+            if (e.id() != bookId) {
+                updated.add(e);
+            }
+        }
+        if (entry != null) {
+            int position = Collections.binarySearch(updated, entry, FEED_ORDER);
+            updated.add(position < 0 ? -position - 1 : position, entry);
+        }
+        return Collections.unmodifiableList(updated);
+    }
+
+    private Set<Long> categoryIds(String name) {
+        return bookCategoryRepository.selectList(new LambdaQueryWrapper<BookCategory>()
+                        .eq(BookCategory::getName, name))
+                .stream()
+                .map(BookCategory::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private FeedEntry toEntry(Book book) {
+        BookVO vo = new BookVO();
+        BeanUtils.copyProperties(book, vo);
+        long createdAt = book.getCreatedAt() == null ? 0
+                : book.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new FeedEntry(createdAt, book.getId(), vo);
+    }
+
+    private List<BookVO> toBooks(List<FeedEntry> entries) {
+        List<BookVO> books = new ArrayList<>(entries.size());
+        for (FeedEntry entry : entries) {
+            books.add(entry.book());
+        }
+        return books;
+    }
+
+    /**
+     * First index whose entry sorts strictly after the cursor position
+     */
+    private int indexAfter(List<FeedEntry> entries, FeedEntry cursor) {
+        int low = 0;
+        int high = entries.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (FEED_ORDER.compare(entries.get(mid), cursor) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private String encodeCursor(FeedEntry entry) {
+        return entry.createdAt() + "_" + entry.id();
+    }
+
+    private FeedEntry decodeCursor(String cursor) {
+        int separator = cursor.indexOf('_');
+        try {
+            return new FeedEntry(Long.parseLong(cursor.substring(0, separator)),
+                    Long.parseLong(cursor.substring(separator + 1)), null);
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Invalid cursor");
+        }
+    }
+
+    private record FeedEntry(long createdAt, long id, BookVO book) {
+    }
+
+    private record Snapshot(Map<String, Map<String, List<FeedEntry>>> shelves,
+                            Set<Long> maleCategoryIds, Set<Long> femaleCategoryIds, long builtAt) {
+
+        List<FeedEntry> shelf(String language, String shelf) {
+            String key = language == null || language.isEmpty() ? ALL_LANGUAGES : language;
+            return shelves.getOrDefault(key, Map.of()).getOrDefault(shelf, List.of());
+        }
+
+        boolean belongs(Book book, String shelf) {
+            return switch (shelf) {
+                case SHELF_HOT -> Boolean.TRUE.equals(book.getIsHot());
+                case SHELF_NEW -> true;
+                case SHELF_MALE -> book.getCategoryId() != null && maleCategoryIds.contains(book.getCategoryId());
+                case SHELF_FEMALE -> book.getCategoryId() != null && femaleCategoryIds.contains(book.getCategoryId());
+                default -> false;
+            };
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.OperationLog;
+import com.bookstore.repository.OperationLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 操作日志异步批量写入
+ *
+ * LogAspect 只把日志放入有界内存队列，不在请求线程中写数据库；
+ * 后台定时取出队列中的日志，以多行 INSERT 批量写入 operation_logs。
+ * - 队列已满时丢弃新日志并计数，不阻塞管理后台请求
+ * - 请求线程只保存参数列表的副本，参数格式化、超长截断和 SHA-256 摘要都在写入线程中完成；
+ *   超长的参数只保留前 max-param-length 个字符，并附上原文长度与摘要
+ * - 应用关闭时写完队列中剩余的日志
+ */
+@Slf4j
+@Component
+public class OperationLogWriter {
+
+    private final OperationLogRepository logRepository;
+
+    /**
+     * 单条 INSERT 最多包含的日志数
+     */
+    @Value("${operation-log.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * params 字段保留的最大字符数
+     */
+    @Value("${operation-log.max-param-length:2000}")
+    private int maxParamLength;
+
+    private final BlockingQueue<PendingLog> queue;
+
+    private final Object flushLock = new Object();
+
+    private final Counter dropped;
+    private final Counter written;
+    private final Counter writeFailures;
+
+    public OperationLogWriter(OperationLogRepository logRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${operation-log.queue-capacity:10000}") int queueCapacity) {
+        this.logRepository = logRepository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Gauge.builder("operation.log.queue.depth", queue, BlockingQueue::size)
+                .description("Operation logs waiting to be written")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("operation.log.dropped")
+                .description("Operation logs dropped because the queue was full")
+                .register(meterRegistry);
+        this.written = Counter.builder("operation.log.written").register(meterRegistry);
+        this.writeFailures = Counter.builder("operation.log.write.failures").register(meterRegistry);
+    }
+
+    /**
+     * Enqueue a log without blocking; params are formatted from args on the writer thread.
+     * Dropped and counted when the queue is full
+     */
+    public void submit(OperationLog operationLog, Object[] args) {
+        if (!queue.offer(new PendingLog(operationLog, snapshot(args)))) {
+            dropped.increment();
+            log.warn("操作日志队列已满，丢弃日志: {} {}", operationLog.getAction(), operationLog.getTarget());
+        }
+    }
+
+    /**
+     * Copy of the controller arguments; uploads are described here since they are deleted after the request
+     */
+    private static List<Object> snapshot(Object[] args) {
+        List<Object> snapshot = new ArrayList<>(args.length);
+        for (Object arg : args) {
+            if (arg instanceof ServletRequest || arg instanceof ServletResponse) {
+                continue;
+            }
+            if (arg instanceof MultipartFile file) {
+                snapshot.add("MultipartFile(" + file.getOriginalFilename() + ", " + file.getSize() + " bytes)");
+                continue;
+            }
+            snapshot.add(arg);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Format controller arguments for the params column, truncating large payloads
+     */
+    private String formatParams(List<Object> args) {
+        try {
+            return truncate(args.toString());
+        } catch (Exception e) {
+            // A failing toString must not lose the whole batch
+            return "(params unavailable: " + e.getClass().getSimpleName() + ")";
+        }
+    }
+
+    /**
+     * 定时写入，默认每秒一次
+     */
+    @Scheduled(fixedDelayString = "${operation-log.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用关闭，写入剩余操作日志: {}", queue.size());
+        flush();
+    }
+
+    /**
+     * Drain the queue and write it in batched INSERTs
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<PendingLog> pending = new ArrayList<>(batchSize);
+            List<OperationLog> batch = new ArrayList<>(batchSize);
+            while (queue.drainTo(pending, batchSize) > 0) {
+                for (PendingLog pendingLog : pending) {
+                    OperationLog operationLog = pendingLog.operationLog();
+                    operationLog.setParams(formatParams(pendingLog.args()));
+                    batch.add(operationLog);
+                }
+                pending.clear();
+                try {
+                    logRepository.insertBatch(batch);
+                    written.increment(batch.size());
+                } catch (Exception e) {
+                    // Logs are best-effort: drop the failed batch instead of retrying it forever
+                    writeFailures.increment(batch.size());
+                    log.error("操作日志批量写入失败, 条数: {}", batch.size(), e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private String truncate(String params) {
+        if (params.length() <= maxParamLength) {
+            return params;
+        }
+        return params.substring(0, maxParamLength)
+                + "...(truncated, length=" + params.length() + ", sha256=" + sha256(params) + ")";
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            return "n/a";
+        }
+    }
+
+    private record PendingLog(OperationLog operationLog, List<Object> args) {
+    }
+}
@@ -0,0 +1,204 @@
+package com.bookstore.service;
+
+import com.bookstore.config.SchedulingConfig;
+import com.bookstore.repository.BookPasscodeRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 口令号码分配器
+ *
+ * 用位图记录 4 位 (1000-9999) 与 5 位 (10000-99999) 号码的占用情况，首次分配时从 book_passcodes 加载一次
+ * (包含已软删除的口令，uk_passcode 对它们同样生效)。
+ * 每个号段预先打乱成随机顺序的号码池，分配时依次取出第一个未占用的号码，均摊 O(1)，
+ * 不再逐个随机猜测并查询数据库。4 位号码用完后才分配 5 位号码。
+ *
+ * 多节点并发创建时各节点的号码池顺序不同，冲突概率很低；
+ * 最终由 uk_passcode 保证唯一，插入冲突时调用方标记该号码已占用并重新分配；
+ * 因其他原因保存失败时调用方释放该号码，释放的号码优先重新分配。
+ * 定时从数据库合并其他节点已使用的号码。
+ */
+@Slf4j
+@Component
+public class PasscodeCodeAllocator {
+
+    private final BookPasscodeRepository passcodeRepository;
+
+    private final CodeRange fourDigits = new CodeRange(1000, 9999);
+    private final CodeRange fiveDigits = new CodeRange(10000, 99999);
+
+    private boolean loaded;
+
+    public PasscodeCodeAllocator(BookPasscodeRepository passcodeRepository, MeterRegistry meterRegistry) {
+        this.passcodeRepository = passcodeRepository;
+        Gauge.builder("passcode.codes.free", fourDigits, CodeRange::free)
+                .tag("digits", "4")
+                .description("Passcodes of this length not yet used")
+                .register(meterRegistry);
+        Gauge.builder("passcode.codes.free", fiveDigits, CodeRange::free)
+                .tag("digits", "5")
+                .description("Passcodes of this length not yet used")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reserve a free code, 4-digit first, then 5-digit
+     */
+    public synchronized String allocate() {
+        if (!loaded) {
+            loadUsedCodes();
+        }
+        Integer code = fourDigits.allocate();
+        if (code == null) {
+            code = fiveDigits.allocate();
+        }
+        if (code == null) {
+            throw new RuntimeException("无法生成唯一的口令，所有可用的口令已被使用");
+        }
+        return String.valueOf(code);
+    }
+
+    /**
+     * Mark a code as used, e.g. after uk_passcode rejected it because another node took it
+     */
+    public synchronized void markUsed(String passcode) {
+        Integer code = parse(passcode);
+        if (code != null) {
+            fourDigits.markUsed(code);
+            fiveDigits.markUsed(code);
+        }
+    }
+
+    /**
+     * Give back a reserved code whose passcode was not saved for a reason other than uk_passcode
+     */
+    public synchronized void release(String passcode) {
+        Integer code = parse(passcode);
+        if (code != null) {
+            fourDigits.release(code);
+            fiveDigits.release(code);
+        }
+    }
+
+    /**
+     * 定时合并其他节点已使用的号码，默认每 5 分钟一次
+     */
+    @Scheduled(fixedDelayString = "${passcode-allocator.reload-interval-ms:300000}",
+            initialDelayString = "${passcode-allocator.reload-interval-ms:300000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public synchronized void scheduledReload() {
+        if (loaded) {
+            loadUsedCodes();
+        }
+    }
+
+    /**
+     * Merge all codes in book_passcodes into the bitmaps; saved codes are never released
+     */
+    private void loadUsedCodes() {
+        List<String> codes = passcodeRepository.selectAllPasscodes();
+        for (String passcode : codes) {
+            Integer code = parse(passcode);
+            if (code != null) {
+                fourDigits.markUsed(code);
+                fiveDigits.markUsed(code);
+            }
+        }
+        loaded = true;
+        log.debug("口令号码已加载, 已用: {}, 剩余 4 位: {}, 剩余 5 位: {}",
+                codes.size(), fourDigits.free(), fiveDigits.free());
+    }
+
+    private static Integer parse(String passcode) {
+        if (passcode == null || passcode.isEmpty() || passcode.length() > 5) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(passcode);
+        } catch (NumberFormatException e) {
+            // Manually entered non-numeric codes are outside the generated ranges
+            return null;
+        }
+    }
+
+    /**
+     * Used-code bitmap plus a shuffled pool of one code range
+     */
+    private static final class CodeRange {
+
+        private final int min;
+        private final int max;
+        private final BitSet used;
+        private final int[] pool;
+        private int next;
+        // Released codes are behind the pool cursor, so they are handed out from here first
+        private final Deque<Integer> released = new ArrayDeque<>();
+
+        CodeRange(int min, int max) {
+            this.min = min;
+            this.max = max;
+            int size = max - min + 1;
+            this.used = new BitSet(size);
+            this.pool = new int[size];
+            for (int i = 0; i < size; i++) {
+                pool[i] = min + i;
+            }
+            // Fisher-Yates shuffle: random order per node keeps codes unpredictable and spreads nodes apart
+            Random random = new SecureRandom();
+            for (int i = size - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int tmp = pool[i];
+                pool[i] = pool[j];
+                pool[j] = tmp;
+            }
+        }
+
+        /**
+         * A released code if any, else the next unused code from the pool; every pool slot is visited at most once
+         */
+        Integer allocate() {
+            while (!released.isEmpty()) {
+                int code = released.pop();
+                if (!used.get(code - min)) {
+                    used.set(code - min);
+                    return code;
+                }
+            }
+            while (next < pool.length) {
+                int code = pool[next++];
+                if (!used.get(code - min)) {
+                    used.set(code - min);
+                    return code;
+                }
+            }
+            return null;
+        }
+
+        void markUsed(int code) {
+            if (code >= min && code <= max) {
+                used.set(code - min);
+            }
+        }
+
+        void release(int code) {
+            if (code >= min && code <= max && used.get(code - min)) {
+                used.clear(code - min);
+                released.push(code);
+            }
+        }
+
+        double free() {
+            return (max - min + 1) - used.cardinality();
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.bookstore.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bookstore.entity.BookPasscode;
+import com.bookstore.repository.BookPasscodeRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 口令内存索引 (read-through)
+ *
+ * 按口令号码 (code -> id) 和按 ID (id -> 口令) 两个方向缓存未删除的口令，
+ * 包含 status / validFrom / validTo / maxUsage，校验口令只需一次内存查找加有效期判断。
+ * - 未命中时从 book_passcodes 加载，不存在的号码 / ID 也会短暂缓存，防止反复查库
+ * - 管理后台新增 / 修改 / 删除口令时直接更新索引，并通过 CacheInvalidationBus 通知其他节点
+ * - 每次修改 / 失效都会递增 generation；查库开始后发生过修改的加载结果不写入索引，
+ *   避免读到的旧行在修改之后才写入，使已停用 / 删除的口令继续有效
+ * - 条目最长存活 ENTRY_TTL 作为兜底
+ */
+@Component
+@RequiredArgsConstructor
+public class PasscodeIndex {
+
+    /**
+     * 兜底存活时间，覆盖未经过本索引的 book_passcodes 修改
+     */
+    private static final Duration ENTRY_TTL = Duration.ofMinutes(30);
+
+    /**
+     * 不存在的号码 / ID 的缓存时间
+     */
+    private static final Duration MISSING_TTL = Duration.ofSeconds(30);
+
+    private static final long MAX_ENTRIES = 100_000;
+
+    private final BookPasscodeRepository passcodeRepository;
+    private final CacheInvalidationBus invalidationBus;
+
+    private final Cache<Long, PasscodeEntry> byId = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(ENTRY_TTL)
+            .build();
+
+    private final Cache<String, Long> idByCode = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(ENTRY_TTL)
+            .build();
+
+    // Negative lookups expire sooner so passcodes created on other nodes show up quickly
+    private final Cache<Object, Boolean> missing = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfterWrite(MISSING_TTL)
+            .build();
+
+    // Bumped by every change to the index, guarded by this
+    private long generation;
+
+    /**
+     * 其他节点修改了口令时清除本地条目，下次查找从数据库重新加载
+     */
+    @PostConstruct
+    public void subscribeRemoteInvalidations() {
+        invalidationBus.subscribe((eventType, passcodeId) -> {
+            if (CacheInvalidationBus.TYPE_PASSCODE.equals(eventType) && passcodeId != null) {
+                synchronized (this) {
+                    generation++;
+                    removeLocal(passcodeId);
+                    // The code of a passcode created remotely may be cached as missing here
+                    missing.invalidateAll();
+                }
+            } else if (CacheInvalidationBus.TYPE_ALL_BOOKS.equals(eventType)) {
+                synchronized (this) {
+                    generation++;
+                    byId.invalidateAll();
+                    idByCode.invalidateAll();
+                    missing.invalidateAll();
+                }
+            }
+        });
+    }
+
+    /**
+     * Passcode by id, or null if it does not exist or is deleted
+     */
+    public PasscodeEntry getById(Long passcodeId) {
+        if (passcodeId == null) {
+            return null;
+        }
+        PasscodeEntry entry = byId.getIfPresent(passcodeId);
+        if (entry != null || missing.getIfPresent(passcodeId) != null) {
+            return entry;
+        }
+        long loadGeneration = currentGeneration();
+        return load(passcodeRepository.selectById(passcodeId), passcodeId, loadGeneration);
+    }
+
+    /**
+     * Passcode by code, or null if it does not exist or is deleted
+     */
+    public PasscodeEntry getByCode(String passcode) {
+        if (passcode == null || passcode.isEmpty()) {
+            return null;
+        }
+        Long passcodeId = idByCode.getIfPresent(passcode);
+        if (passcodeId != null) {
+            PasscodeEntry entry = getById(passcodeId);
+            if (entry != null && passcode.equals(entry.passcode())) {
+                return entry;
+            }
+        } else if (missing.getIfPresent(passcode) != null) {
+            return null;
+        }
+        long loadGeneration = currentGeneration();
+        BookPasscode loaded = passcodeRepository.selectOne(new LambdaQueryWrapper<BookPasscode>()
+                .eq(BookPasscode::getPasscode, passcode));
+        return load(loaded, passcode, loadGeneration);
+    }
+
+    /**
+     * Put a created or updated passcode and notify the other nodes
+     */
+    public void put(BookPasscode passcode) {
+        if (passcode == null || passcode.getId() == null) {
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            removeLocal(passcode.getId());
+            if (!Boolean.TRUE.equals(passcode.getDeleted())) {
+                index(PasscodeEntry.of(passcode));
+            }
+        }
+        invalidationBus.publish(CacheInvalidationBus.TYPE_PASSCODE, passcode.getId());
+    }
+
+    /**
+     * Remove a deleted passcode and notify the other nodes
+     */
+    public void remove(Long passcodeId) {
+        if (passcodeId == null) {
+            return;
+        }
+        synchronized (this) {
+            generation++;
+            removeLocal(passcodeId);
+        }
+        invalidationBus.publish(CacheInvalidationBus.TYPE_PASSCODE, passcodeId);
+    }
+
+    private synchronized long currentGeneration() {
+        return generation;
+    }
+
+    /**
+     * Index a row read from the database, unless the index changed after the read started
+     */
+    private PasscodeEntry load(BookPasscode passcode, Object lookupKey, long loadGeneration) {
+        PasscodeEntry entry = passcode == null || Boolean.TRUE.equals(passcode.getDeleted())
+                ? null : PasscodeEntry.of(passcode);
+        synchronized (this) {
+            if (generation == loadGeneration) {
+                if (entry == null) {
+                    missing.put(lookupKey, Boolean.TRUE);
+                } else {
+                    index(entry);
+                }
+            }
+        }
+        return entry;
+    }
+
+    private void index(PasscodeEntry entry) {
+        missing.invalidate(entry.id());
+        missing.invalidate(entry.passcode());
+        byId.put(entry.id(), entry);
+        idByCode.put(entry.passcode(), entry.id());
+    }
+
+    private void removeLocal(Long passcodeId) {
+        PasscodeEntry previous = byId.asMap().remove(passcodeId);
+        if (previous != null) {
+            idByCode.asMap().remove(previous.passcode(), passcodeId);
+        }
+        missing.invalidate(passcodeId);
+    }
+
+    /**
+     * Indexed fields of a passcode; used / view counts are not held here
+     */
+    public record PasscodeEntry(Long id, String passcode, Long bookId, Long distributorId, Integer status,
+                                Integer maxUsage, LocalDateTime validFrom, LocalDateTime validTo) {
+
+        static PasscodeEntry of(BookPasscode passcode) {
+            return new PasscodeEntry(passcode.getId(), passcode.getPasscode(), passcode.getBookId(),
+                    passcode.getDistributorId(), passcode.getStatus(), passcode.getMaxUsage(),
+                    passcode.getValidFrom(), passcode.getValidTo());
+        }
+
+        /**
+         * Active and inside the valid period (compare by date only, ignore time)
+         */
+        public boolean isValid(LocalDate today) {
+            if (status == null || status != 1) {
+                return false;
+            }
+            if (validFrom != null && today.isBefore(validFrom.toLocalDate())) {
+                return false;
+            }
+            return validTo == null || !today.isAfter(validTo.toLocalDate());
+        }
+    }
+}
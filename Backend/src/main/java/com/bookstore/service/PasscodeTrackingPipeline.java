@@ -0,0 +1,216 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.PasscodeCounterDelta;
+import com.bookstore.entity.PasscodeUsageLog;
+import com.bookstore.repository.BookPasscodeRepository;
+import com.bookstore.repository.PasscodeUsageLogRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 口令行为追踪写入管道
+ *
+ * 客户端每次点击 (use / open / sub / view) 不再同步执行 查询 + 插入日志 + 更新计数 三次数据库操作：
+ * - 口令 ID 在 PasscodeIndex 中校验，命中时不查库
+ * - 事件放入有界缓冲队列，后台定时批量写出：
+ *   使用日志合并为多行 INSERT，各口令的 used_count / view_count 增量合并为一条批量 UPDATE
+ * - 缓冲队列已满时短暂等待，仍然放不下则拒绝请求 (背压)，由客户端稍后重试
+ * - 计数写回失败时增量保留到下一次写出；应用关闭时写出剩余事件
+ */
+@Slf4j
+@Component
+public class PasscodeTrackingPipeline {
+
+    // passcode_usage_logs column limits
+    private static final int MAX_IP_LENGTH = 50;
+    private static final int MAX_DEVICE_INFO_LENGTH = 255;
+
+    public enum TrackResult {
+        ACCEPTED,
+        NOT_FOUND,
+        REJECTED
+    }
+
+    private final BookPasscodeRepository passcodeRepository;
+    private final PasscodeUsageLogRepository usageLogRepository;
+    private final PasscodeIndex passcodeIndex;
+
+    /**
+     * 单条 INSERT / UPDATE 最多包含的行数
+     */
+    @Value("${passcode-tracking.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 队列已满时请求线程最多等待的时间
+     */
+    @Value("${passcode-tracking.offer-timeout-ms:20}")
+    private long offerTimeoutMs;
+
+    private final BlockingQueue<TrackEvent> buffer;
+
+    // Counter deltas folded per passcode; deltas of a failed UPDATE stay for the next flush
+    private final Map<Long, PasscodeCounterDelta> pendingDeltas = new HashMap<>();
+
+    private final Object flushLock = new Object();
+
+    private final Counter rejected;
+    private final Counter flushedEvents;
+    private final Counter logFailures;
+    private final Counter counterFailures;
+
+    public PasscodeTrackingPipeline(BookPasscodeRepository passcodeRepository,
+                                    PasscodeUsageLogRepository usageLogRepository,
+                                    PasscodeIndex passcodeIndex,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${passcode-tracking.buffer-capacity:50000}") int bufferCapacity) {
+        this.passcodeRepository = passcodeRepository;
+        this.usageLogRepository = usageLogRepository;
+        this.passcodeIndex = passcodeIndex;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        Gauge.builder("passcode.tracking.buffer", buffer, BlockingQueue::size)
+                .description("Passcode tracking events waiting to be written")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("passcode.tracking.rejected")
+                .description("Passcode tracking events rejected because the buffer was full")
+                .register(meterRegistry);
+        this.flushedEvents = Counter.builder("passcode.tracking.flushed").register(meterRegistry);
+        this.logFailures = Counter.builder("passcode.tracking.failures").tag("type", "logs").register(meterRegistry);
+        this.counterFailures = Counter.builder("passcode.tracking.failures").tag("type", "counters").register(meterRegistry);
+    }
+
+    /**
+     * Validate the passcode and buffer one tracking event
+     *
+     * @param countUsed whether the event increments used_count
+     * @param countView whether the event increments view_count
+     */
+    public TrackResult track(Long passcodeId, Long userId, String actionType, String ipAddress, String deviceInfo,
+                             boolean countUsed, boolean countView) {
+        PasscodeIndex.PasscodeEntry passcode = passcodeIndex.getById(passcodeId);
+        if (passcode == null) {
+            return TrackResult.NOT_FOUND;
+        }
+
+        TrackEvent event = new TrackEvent(passcodeId, userId, passcode.bookId(), passcode.distributorId(), actionType,
+                truncate(ipAddress, MAX_IP_LENGTH), truncate(deviceInfo, MAX_DEVICE_INFO_LENGTH),
+                LocalDateTime.now(), countUsed, countView);
+        try {
+            if (buffer.offer(event, offerTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return TrackResult.ACCEPTED;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        rejected.increment();
+        return TrackResult.REJECTED;
+    }
+
+    /**
+     * 定时写出，默认每秒一次
+     */
+    @Scheduled(fixedDelayString = "${passcode-tracking.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.info("应用关闭，写出剩余口令追踪事件: {}", buffer.size());
+        flush();
+    }
+
+    /**
+     * Drain the events buffered at entry, insert their logs and apply folded counter deltas.
+     * Events arriving meanwhile wait for the next flush, so counters are written on every flush
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            List<TrackEvent> events = new ArrayList<>(batchSize);
+            int remaining = buffer.size();
+            while (remaining > 0 && buffer.drainTo(events, Math.min(batchSize, remaining)) > 0) {
+                remaining -= events.size();
+                writeLogs(events);
+                for (TrackEvent event : events) {
+                    if (event.countUsed() || event.countView()) {
+                        PasscodeCounterDelta delta = pendingDeltas.computeIfAbsent(event.passcodeId(),
+                                id -> new PasscodeCounterDelta(id, 0L, 0L));
+                        delta.setUsedCount(delta.getUsedCount() + (event.countUsed() ? 1 : 0));
+                        delta.setViewCount(delta.getViewCount() + (event.countView() ? 1 : 0));
+                    }
+                }
+                flushedEvents.increment(events.size());
+                events.clear();
+            }
+            writeCounters();
+        }
+    }
+
+    private void writeLogs(List<TrackEvent> events) {
+        List<PasscodeUsageLog> logs = new ArrayList<>(events.size());
+        for (TrackEvent event : events) {
+            PasscodeUsageLog usageLog = new PasscodeUsageLog();
+            usageLog.setPasscodeId(event.passcodeId());
+            usageLog.setUserId(event.userId());
+            usageLog.setBookId(event.bookId());
+            usageLog.setDistributorId(event.distributorId());
+            usageLog.setActionType(event.actionType());
+            usageLog.setIpAddress(event.ipAddress());
+            usageLog.setDeviceInfo(event.deviceInfo());
+            usageLog.setCreatedAt(event.createdAt());
+            logs.add(usageLog);
+        }
+        try {
+            usageLogRepository.insertBatch(logs);
+        } catch (Exception e) {
+            // Usage logs are analytics: drop the failed batch, counters are still applied
+            logFailures.increment(logs.size());
+            log.error("口令使用日志批量写入失败, 条数: {}", logs.size(), e);
+        }
+    }
+
+    private void writeCounters() {
+        if (pendingDeltas.isEmpty()) {
+            return;
+        }
+        List<PasscodeCounterDelta> deltas = new ArrayList<>(pendingDeltas.values());
+        pendingDeltas.clear();
+        for (int from = 0; from < deltas.size(); from += batchSize) {
+            List<PasscodeCounterDelta> batch = deltas.subList(from, Math.min(from + batchSize, deltas.size()));
+            try {
+                passcodeRepository.batchIncrementCounters(batch);
+            } catch (Exception e) {
+                // Keep the deltas so the next flush retries them
+                counterFailures.increment(batch.size());
+                log.error("口令计数写回失败, 口令数: {}", batch.size(), e);
+                for (PasscodeCounterDelta delta : batch) {
+                    pendingDeltas.put(delta.getPasscodeId(), delta);
+                }
+            }
+        }
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value == null || value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private record TrackEvent(Long passcodeId, Long userId, Long bookId, Long distributorId, String actionType,
+                              String ipAddress, String deviceInfo, LocalDateTime createdAt,
+                              boolean countUsed, boolean countView) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.bookstore.service;
+
+import com.bookstore.dto.ReaderDataDTO;
+
+/**
+ * 阅读页数据缓存服务接口
+ * 缓存阅读页中与用户无关的部分（书籍信息、目录、首章内容），按书籍 id 缓存
+ */
+public interface ReaderDataCacheService {
+
+    /**
+     * Get the user-independent reader data of a book.
+     * Chapters carry no canAccess and hasValidSubscription is unset; content is
+     * present only on the first chapter and on the first free chapter, so the
+     * caller can pick the first accessible one per request.
+     * The returned DTO is a cached instance and must not be modified.
+     */
+    ReaderDataDTO getReaderSnapshot(Long bookId);
+}
@@ -0,0 +1,33 @@
+package com.bookstore.service;
+
+import com.bookstore.vo.BookVO;
+
+/**
+ * 公开书籍 / 章节接口的 ETag 计算
+ *
+ * ETag 只由缓存中的元数据 (书籍信息、目录、章节 updatedAt) 和当前用户的访问权限计算，
+ * 不加载章节正文，客户端携带 If-None-Match 命中时直接返回 304。
+ * 返回 null 表示无法给出校验值，调用方按普通请求处理。
+ */
+public interface ResourceVersionService {
+
+    /**
+     * ETag of GET /books/{id}, hash of the cached book details
+     */
+    String bookDetailsTag(BookVO book);
+
+    /**
+     * ETag of GET /books/{id}/chapters
+     */
+    String chapterListTag(Long bookId, Boolean includeFirstChapter, Long userId);
+
+    /**
+     * ETag of GET /books/chapters/{id}; null when the chapter is missing or locked for the user
+     */
+    String chapterTag(Long chapterId, Long userId);
+
+    /**
+     * ETag of GET /books/{id}/reader-data
+     */
+    String readerDataTag(Long bookId, Long userId);
+}
@@ -0,0 +1,26 @@
+package com.bookstore.service;
+
+import java.time.Duration;
+
+/**
+ * 多节点共享的二级缓存存储 (L2)
+ *
+ * 值为已序列化的字节数组，由 TwoTierCache 在本地 Caffeine (L1) 未命中时读取。
+ * 实现通过 cache-l2.type 选择：redis (生产) / memory (进程内替身，用于测试和本地开发) / none (不启用)。
+ */
+public interface SharedCacheStore {
+
+    /**
+     * Serialized value, or null when absent
+     */
+    byte[] get(String cacheName, Object key);
+
+    void put(String cacheName, Object key, byte[] value, Duration ttl);
+
+    void evict(String cacheName, Object key);
+
+    /**
+     * Remove all entries of one cache
+     */
+    void clear(String cacheName);
+}
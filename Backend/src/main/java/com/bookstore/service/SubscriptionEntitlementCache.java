@@ -0,0 +1,194 @@
+package com.bookstore.service;
+
+import com.bookstore.entity.User;
+import com.bookstore.repository.UserMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * 用户订阅权益缓存
+ *
+ * 缓存每个用户的 isSvip / subscriptionStatus / subscriptionEndDate，
+ * 避免每次阅读请求都按主键查询 users 表。
+ * - 订阅写操作（支付、取消、过期、Apple/Google 回调）直接更新缓存
+ * - 条目在 subscriptionEndDate 到达时自动过期，最长存活 MAX_TTL 作为兜底
+ * - 在事务中调用时，缓存更新延迟到事务提交之后执行，避免回滚后缓存脏数据
+ * - 更新同时通过 CacheInvalidationBus 通知其他节点清除该用户的条目，
+ *   afterCommit 中原事务已提交但连接仍绑定在线程上，因此失效事件在新事务中写入
+ */
+@Slf4j
+@Component
+public class SubscriptionEntitlementCache {
+
+    /**
+     * Name used for statistics and metrics
+     */
+    public static final String CACHE_NAME = "subscriptionEntitlements";
+
+    /**
+     * 兜底存活时间，覆盖未经过本缓存的 users 表修改
+     */
+    private static final Duration MAX_TTL = Duration.ofMinutes(30);
+
+    private static final long MAX_ENTRIES = 100_000;
+
+    private final UserMapper userMapper;
+    private final CacheInvalidationBus invalidationBus;
+    private final TransactionTemplate publishTransaction;
+
+    private final Cache<Long, Entitlement> cache = Caffeine.newBuilder()
+            .maximumSize(MAX_ENTRIES)
+            .expireAfter(new EntitlementExpiry())
+            .recordStats()
+            .build();
+
+    public SubscriptionEntitlementCache(UserMapper userMapper,
+                                        CacheInvalidationBus invalidationBus,
+                                        PlatformTransactionManager transactionManager) {
+        this.userMapper = userMapper;
+        this.invalidationBus = invalidationBus;
+        this.publishTransaction = new TransactionTemplate(transactionManager);
+        this.publishTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 其他节点修改了用户订阅时清除本地条目，下次检查从数据库重新加载
+     */
+    @PostConstruct
+    public void subscribeRemoteInvalidations() {
+        invalidationBus.subscribe((eventType, userId) -> {
+            if (CacheInvalidationBus.TYPE_USER_ENTITLEMENT.equals(eventType) && userId != null) {
+                cache.invalidate(userId);
+            }
+        });
+    }
+
+    /**
+     * Check if user has a valid subscription, loading from database on cache miss
+     */
+    public boolean isSubscriptionValid(Long userId) {
+        if (userId == null) {
+            return false;
+        }
+        return cache.get(userId, this::load).isValid(LocalDateTime.now());
+    }
+
+    /**
+     * Replace cached entitlement with the given user state (after commit if in a transaction)
+     */
+    public void update(User user) {
+        if (user == null || user.getId() == null) {
+            return;
+        }
+        Long userId = user.getId();
+        Entitlement entitlement = Entitlement.of(user);
+        runAfterCommit(() -> {
+            cache.put(userId, entitlement);
+            log.debug("更新用户 {} 订阅权益缓存: {}", userId, entitlement);
+            publishInvalidation(userId);
+        });
+    }
+
+    /**
+     * Drop cached entitlement so the next check reloads from database
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        runAfterCommit(() -> {
+            cache.invalidate(userId);
+            publishInvalidation(userId);
+        });
+    }
+
+    /**
+     * Underlying Caffeine cache, for statistics
+     */
+    public Cache<Long, ?> getNativeCache() {
+        return cache;
+    }
+
+    private void publishInvalidation(Long userId) {
+        publishTransaction.executeWithoutResult(status ->
+                invalidationBus.publish(CacheInvalidationBus.TYPE_USER_ENTITLEMENT, userId));
+    }
+
+    private Entitlement load(Long userId) {
+        User user = userMapper.selectById(userId);
+        return user == null ? Entitlement.NONE : Entitlement.of(user);
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Cached subscription snapshot of a user
+     */
+    record Entitlement(boolean isSvip, String subscriptionStatus, LocalDateTime subscriptionEndDate) {
+
+        static final Entitlement NONE = new Entitlement(false, null, null);
+
+        static Entitlement of(User user) {
+            return new Entitlement(Boolean.TRUE.equals(user.getIsSvip()),
+                    user.getSubscriptionStatus(), user.getSubscriptionEndDate());
+        }
+
+        boolean isValid(LocalDateTime now) {
+            // Only check SVIP status
+            if (!isSvip) {
+                return false;
+            }
+            // If no end date set, SVIP is permanent (manually assigned)
+            return subscriptionEndDate == null || now.isBefore(subscriptionEndDate);
+        }
+    }
+
+    /**
+     * Expire entries at subscriptionEndDate, capped by MAX_TTL
+     */
+    private static class EntitlementExpiry implements Expiry<Long, Entitlement> {
+
+        @Override
+        public long expireAfterCreate(Long key, Entitlement value, long currentTime) {
+            long ttl = MAX_TTL.toNanos();
+            if (value.isSvip() && value.subscriptionEndDate() != null) {
+                long untilEnd = Duration.between(LocalDateTime.now(), value.subscriptionEndDate()).toNanos();
+                ttl = Math.max(0, Math.min(ttl, untilEnd));
+            }
+            return ttl;
+        }
+
+        @Override
+        public long expireAfterUpdate(Long key, Entitlement value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(Long key, Entitlement value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -5,31 +5,29 @@ import com.bookstore.config.AppleSignInConfig;
 import com.bookstore.dto.AppleSignInRequest;
 import com.bookstore.entity.User;
 import com.bookstore.repository.UserMapper;
+import com.bookstore.service.AppleJwkSource;
 import com.bookstore.service.AppleSignInService;
 import com.bookstore.util.JwtUtils;
 import com.bookstore.vo.UserVO;
 import com.nimbusds.jose.JWSAlgorithm;
-import com.nimbusds.jose.jwk.JWKSet;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
 import com.nimbusds.jose.proc.JWSKeySelector;
 import com.nimbusds.jose.proc.JWSVerificationKeySelector;
 import com.nimbusds.jose.proc.SecurityContext;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.proc.ConfigurableJWTProcessor;
 import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.net.URL;
 import java.util.UUID;
 
 @Slf4j
 @Service
 public class AppleSignInServiceImpl implements AppleSignInService {
 
-    private static final String APPLE_KEYS_URL = "https://appleid.apple.com/auth/keys";
     private static final String APPLE_ISSUER = "https://appleid.apple.com";
 
     @Autowired
@@ -41,6 +39,22 @@ public class AppleSignInServiceImpl implements AppleSignInService {
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private AppleJwkSource appleJwkSource;
+
+    // Configured once; the processor is thread-safe after setup
+    private ConfigurableJWTProcessor<SecurityContext> jwtProcessor;
+
+    @PostConstruct
+    public void initJwtProcessor() {
+        jwtProcessor = new DefaultJWTProcessor<>();
+        JWSKeySelector<SecurityContext> keySelector = new JWSVerificationKeySelector<>(
+                JWSAlgorithm.RS256,
+                appleJwkSource
+        );
+        jwtProcessor.setJWSKeySelector(keySelector);
+    }
+
     @Override
     public UserVO signInWithApple(AppleSignInRequest request) {
         // 1. Verify the identity token and extract claims
@@ -121,18 +135,7 @@ public class AppleSignInServiceImpl implements AppleSignInService {
 
     private AppleTokenClaims verifyIdentityToken(String identityToken) {
         try {
-            // Fetch Apple's public keys
-            JWKSet jwkSet = JWKSet.load(new URL(APPLE_KEYS_URL));
-
-            // Create JWT processor
-            ConfigurableJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
-            JWSKeySelector<SecurityContext> keySelector = new JWSVerificationKeySelector<>(
-                    JWSAlgorithm.RS256,
-                    new ImmutableJWKSet<>(jwkSet)
-            );
-            jwtProcessor.setJWSKeySelector(keySelector);
-
-            // Process and verify the token
+            // Process and verify the token against the cached Apple public keys
             JWTClaimsSet claimsSet = jwtProcessor.process(identityToken, null);
 
             // Validate issuer
@@ -1,92 +1,72 @@
 package com.bookstore.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.bookstore.entity.BookPasscode;
 import com.bookstore.entity.PasscodeUsageLog;
 import com.bookstore.repository.BookPasscodeRepository;
 import com.bookstore.repository.PasscodeUsageLogRepository;
 import com.bookstore.service.BookPasscodeService;
+import com.bookstore.service.PasscodeCodeAllocator;
+import com.bookstore.service.PasscodeIndex;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.Random;
 
 @Service
 @RequiredArgsConstructor
 public class BookPasscodeServiceImpl extends ServiceImpl<BookPasscodeRepository, BookPasscode> implements BookPasscodeService {
 
+    /**
+     * 口令冲突时的最大尝试次数
+     */
+    private static final int MAX_SAVE_ATTEMPTS = 5;
+
     private final PasscodeUsageLogRepository usageLogRepository;
+    private final PasscodeCodeAllocator codeAllocator;
+    private final PasscodeIndex passcodeIndex;
 
     @Override
-    public String generatePasscode() {
-        // Generate a 4-digit passcode first, fallback to 5-digit if all 4-digit codes are used
-        String passcode;
-        Random random = new Random();
-
-        // First, try to generate a 4-digit passcode (1000-9999)
-        int fourDigitAttempts = 0;
-        int maxFourDigitAttempts = 9000; // Total 4-digit codes available: 1000-9999
-
-        do {
-            int randomNum = 1000 + random.nextInt(9000);
-            passcode = String.valueOf(randomNum);
-            fourDigitAttempts++;
-
-            if (!passcodeExists(passcode)) {
-                return passcode;
-            }
-        } while (fourDigitAttempts < maxFourDigitAttempts);
-
-        // All 4-digit codes used, generate 5-digit passcode (10000-99999)
-        int fiveDigitAttempts = 0;
-        int maxFiveDigitAttempts = 90000;
-
-        do {
-            int randomNum = 10000 + random.nextInt(90000);
-            passcode = String.valueOf(randomNum);
-            fiveDigitAttempts++;
-
-            if (!passcodeExists(passcode)) {
-                return passcode;
+    public void saveWithGeneratedPasscode(BookPasscode passcode) {
+        for (int attempt = 1; ; attempt++) {
+            String code = codeAllocator.allocate();
+            passcode.setPasscode(code);
+            try {
+                save(passcode);
+                passcodeIndex.put(passcode);
+                return;
+            } catch (DuplicateKeyException e) {
+                // Another node took the code first; uk_passcode is the final guard
+                codeAllocator.markUsed(code);
+                passcode.setId(null);
+                if (attempt >= MAX_SAVE_ATTEMPTS) {
+                    throw new RuntimeException("生成口令失败，请重试");
+                }
+            } catch (RuntimeException e) {
+                // The code was not saved, give it back so it is not burned
+                codeAllocator.release(code);
+                passcode.setPasscode(null);
+                passcode.setId(null);
+                throw e;
             }
-        } while (fiveDigitAttempts < maxFiveDigitAttempts);
-
-        throw new RuntimeException("无法生成唯一的口令，所有可用的口令已被使用");
-    }
-
-    private boolean passcodeExists(String passcode) {
-        QueryWrapper<BookPasscode> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("passcode", passcode);
-        return count(queryWrapper) > 0;
+        }
     }
 
     @Override
     public boolean validatePasscode(String passcode, Long bookId) {
-        QueryWrapper<BookPasscode> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("passcode", passcode);
-        queryWrapper.eq("book_id", bookId);
-        queryWrapper.eq("status", 1);
-        queryWrapper.eq("deleted", 0);
-
-        BookPasscode bookPasscode = getOne(queryWrapper);
-
-        if (bookPasscode == null) {
-            return false;
-        }
+        return findValidPasscode(passcode, bookId) != null;
+    }
 
-        // Check valid period (compare by date only, ignore time)
-        LocalDateTime now = LocalDateTime.now();
-        if (bookPasscode.getValidFrom() != null && now.toLocalDate().isBefore(bookPasscode.getValidFrom().toLocalDate())) {
-            return false;
-        }
-        if (bookPasscode.getValidTo() != null && now.toLocalDate().isAfter(bookPasscode.getValidTo().toLocalDate())) {
-            return false;
+    @Override
+    public PasscodeIndex.PasscodeEntry findValidPasscode(String passcode, Long bookId) {
+        PasscodeIndex.PasscodeEntry entry = passcodeIndex.getByCode(passcode);
+        if (entry == null || !entry.bookId().equals(bookId) || !entry.isValid(LocalDate.now())) {
+            return null;
         }
-
-        return true;
+        return entry;
     }
 
     @Override
@@ -130,26 +110,11 @@ public class BookPasscodeServiceImpl extends ServiceImpl<BookPasscodeRepository,
     }
 
     @Override
-    public BookPasscode findValidPasscodeByCode(String passcode) {
-        QueryWrapper<BookPasscode> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("passcode", passcode);
-        queryWrapper.eq("status", 1);
-        queryWrapper.eq("deleted", 0);
-
-        BookPasscode bookPasscode = getOne(queryWrapper);
-        if (bookPasscode == null) {
+    public PasscodeIndex.PasscodeEntry findValidPasscodeByCode(String passcode) {
+        PasscodeIndex.PasscodeEntry entry = passcodeIndex.getByCode(passcode);
+        if (entry == null || !entry.isValid(LocalDate.now())) {
             return null;
         }
-
-        // Check valid period (compare by date only, ignore time)
-        LocalDateTime now = LocalDateTime.now();
-        if (bookPasscode.getValidFrom() != null && now.toLocalDate().isBefore(bookPasscode.getValidFrom().toLocalDate())) {
-            return null;
-        }
-        if (bookPasscode.getValidTo() != null && now.toLocalDate().isAfter(bookPasscode.getValidTo().toLocalDate())) {
-            return null;
-        }
-
-        return bookPasscode;
+        return entry;
     }
 }
@@ -5,15 +5,22 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.bookstore.config.CacheConfig;
+import com.bookstore.config.CacheLoaderRegistry;
+import com.bookstore.dto.HomeFeedPageDTO;
 import com.bookstore.dto.ReaderDataDTO;
 import com.bookstore.entity.Book;
 import com.bookstore.entity.Chapter;
 import com.bookstore.repository.BookMapper;
 import com.bookstore.repository.ChapterMapper;
+import com.bookstore.service.BookCounterAggregator;
+import com.bookstore.service.BookSearchIndex;
 import com.bookstore.service.BookService;
+import com.bookstore.service.HomeFeedEngine;
+import com.bookstore.service.ReaderDataCacheService;
 import com.bookstore.service.SubscriptionService;
 import com.bookstore.vo.BookVO;
 import com.bookstore.vo.ChapterVO;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cache.annotation.Cacheable;
@@ -34,110 +41,108 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements Bo
     @Autowired
     private SubscriptionService subscriptionService;
 
-    @Override
-    @Cacheable(value = CacheConfig.CACHE_HOME_BOOKS, key = "'home_' + #page + '_' + #pageSize + '_' + (#language ?: 'all')")
-    public Map<String, List<BookVO>> getHomeBooks(Integer page, Integer pageSize, String language) {
-        Map<String, List<BookVO>> result = new HashMap<>();
+    @Autowired
+    private ReaderDataCacheService readerDataCacheService;
 
-        // 计算偏移量
-        int offset = (page - 1) * pageSize;
+    @Autowired
+    private BookCounterAggregator bookCounterAggregator;
 
-        // Hot: 勾选了热门的、状态是已发布的书籍，按照时间倒序
-        LambdaQueryWrapper<Book> hotQuery = new LambdaQueryWrapper<Book>()
-                .eq(Book::getIsHot, true)
-                .eq(Book::getStatus, "published");
-        if (language != null && !language.isEmpty()) {
-            hotQuery.eq(Book::getLanguage, language);
-        }
-        List<Book> hotBooks = list(hotQuery
-                .orderByDesc(Book::getCreatedAt)
-                .last("LIMIT " + pageSize + " OFFSET " + offset));
+    @Autowired
+    private HomeFeedEngine homeFeedEngine;
 
-        // New: 所有已发布的书籍，按照时间倒序
-        LambdaQueryWrapper<Book> newQuery = new LambdaQueryWrapper<Book>()
-                .eq(Book::getStatus, "published");
-        if (language != null && !language.isEmpty()) {
-            newQuery.eq(Book::getLanguage, language);
-        }
-        List<Book> newBooks = list(newQuery
-                .orderByDesc(Book::getCreatedAt)
-                .last("LIMIT " + pageSize + " OFFSET " + offset));
+    @Autowired
+    private BookSearchIndex bookSearchIndex;
 
-        // Male: 男生分类的书籍
-        List<Book> maleBooks = getBooksForCategory("Male", language, pageSize, offset);
+    @Autowired
+    private CacheLoaderRegistry cacheLoaderRegistry;
 
-        // Female: 女生分类的书籍
-        List<Book> femaleBooks = getBooksForCategory("Female", language, pageSize, offset);
+    /**
+     * 书籍详情的后台刷新 (refresh-ahead) 使用与 getBookDetails 相同的加载逻辑
+     */
+    @PostConstruct
+    public void registerCacheLoaders() {
+        cacheLoaderRegistry.register(CacheConfig.CACHE_BOOK_DETAILS, key -> loadBookDetails((Long) key));
+    }
 
-        result.put("hot", convertToVOList(hotBooks));
-        result.put("new", convertToVOList(newBooks));
-        result.put("male", convertToVOList(maleBooks));
-        result.put("female", convertToVOList(femaleBooks));
+    @Override
+    public Map<String, List<BookVO>> getHomeBooks(Integer page, Integer pageSize, String language) {
+        // Hot / New / Male / Female shelves are precomputed in memory, pages are slices
+        return homeFeedEngine.getPage(language, page, pageSize);
+    }
 
+    @Override
+    public Map<String, HomeFeedPageDTO> getHomeFeed(String language, String shelf, String cursor, Integer pageSize) {
+        Map<String, HomeFeedPageDTO> result = new HashMap<>();
+        if (shelf != null && !shelf.isEmpty()) {
+            // Next page of one shelf
+            result.put(shelf, homeFeedEngine.getPageAfter(language, shelf, cursor, pageSize));
+        } else {
+            // First page of every shelf
+            for (String name : HomeFeedEngine.SHELVES) {
+                result.put(name, homeFeedEngine.getPageAfter(language, name, null, pageSize));
+            }
+        }
         return result;
     }
 
-
     @Override
-    @Cacheable(value = CacheConfig.CACHE_BOOK_DETAILS, key = "#id")
+    @Cacheable(value = CacheConfig.CACHE_BOOK_DETAILS, key = "#id", sync = true)
     public BookVO getBookDetails(Long id) {
+        return loadBookDetails(id);
+    }
+
+    private BookVO loadBookDetails(Long id) {
         Book book = getById(id);
         if (book == null) {
             throw new RuntimeException("Book not found");
         }
 
-        // Increment views count (不影响缓存返回值)
-        incrementViews(id);
-
+        // Views are counted by the caller so cache hits are counted too
         return convertToVO(book);
     }
 
     @Override
     public void likeBook(Long id) {
-        // Use atomic SQL update to avoid race condition
-        baseMapper.incrementLikes(id);
+        // Aggregated in memory and flushed in batches
+        bookCounterAggregator.incrementLikes(id);
     }
 
     @Override
     public void incrementViews(Long id) {
-        // Use atomic SQL update to avoid race condition
-        baseMapper.incrementViews(id);
+        // Aggregated in memory and flushed in batches
+        bookCounterAggregator.incrementViews(id);
     }
 
     @Override
-    @Cacheable(value = CacheConfig.CACHE_HOME_BOOKS, key = "'search_' + #keyword", condition = "#keyword != null && #keyword.length() >= 2")
     public List<BookVO> searchBooks(String keyword) {
-        // Add limit to prevent returning too many results
-        List<Book> books = list(new LambdaQueryWrapper<Book>()
-                .like(Book::getTitle, keyword)
-                .or()
-                .like(Book::getAuthor, keyword)
-                .last("LIMIT 50"));
-        return convertToVOList(books);
+        return searchBooks(keyword, null);
+    }
+
+    @Override
+    public List<BookVO> searchBooks(String keyword, String language) {
+        // In-memory inverted index, ranked by relevance; limit to prevent returning too many results
+        return convertToVOList(bookSearchIndex.search(keyword, language, null, 50));
     }
 
     @Override
     public IPage<Book> searchBooks(String keyword, Page<Book> pageParam) {
-        LambdaQueryWrapper<Book> queryWrapper = new LambdaQueryWrapper<>();
         if (keyword != null && !keyword.isEmpty()) {
-            queryWrapper.like(Book::getTitle, keyword)
-                    .or()
-                    .like(Book::getAuthor, keyword);
+            return toPage(bookSearchIndex.search(keyword, null, null, 0), pageParam);
         }
-        return page(pageParam, queryWrapper);
+        return page(pageParam, new LambdaQueryWrapper<>());
     }
 
     public IPage<Book> searchBooks(String keyword, String language, Long categoryId, Boolean isHot, Page<Book> pageParam) {
-        LambdaQueryWrapper<Book> queryWrapper = new LambdaQueryWrapper<>();
-
-        // 按书名或作者搜索
+        // 按关键词搜索: 走内存索引，按相关度排序，其余条件在索引结果上过滤
         if (keyword != null && !keyword.isEmpty()) {
-            queryWrapper.and(wrapper -> wrapper
-                    .like(Book::getTitle, keyword)
-                    .or()
-                    .like(Book::getAuthor, keyword));
+            List<Book> books = bookSearchIndex.search(keyword, language, book ->
+                    (categoryId == null || categoryId.equals(book.getCategoryId()))
+                            && (isHot == null || isHot.equals(book.getIsHot())), 0);
+            return toPage(books, pageParam);
         }
 
+        LambdaQueryWrapper<Book> queryWrapper = new LambdaQueryWrapper<>();
+
         // 按语言筛选
         if (language != null && !language.isEmpty()) {
             queryWrapper.eq(Book::getLanguage, language);
@@ -160,10 +165,14 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements Bo
     }
 
     /**
-     * Get books by category name using JOIN query (single database query)
+     * Slice ranked search results into the requested page
      */
-    private List<Book> getBooksForCategory(String categoryName, String language, int pageSize, int offset) {
-        return baseMapper.selectBooksByCategory(categoryName, language, pageSize, offset);
+    private IPage<Book> toPage(List<Book> books, Page<Book> pageParam) {
+        Page<Book> result = new Page<>(pageParam.getCurrent(), pageParam.getSize(), books.size());
+        int from = (int) Math.min((pageParam.getCurrent() - 1) * pageParam.getSize(), books.size());
+        int to = (int) Math.min(from + pageParam.getSize(), books.size());
+        result.setRecords(new ArrayList<>(books.subList(Math.max(from, 0), to)));
+        return result;
     }
 
     private List<BookVO> convertToVOList(List<Book> books) {
@@ -198,84 +207,48 @@ public class BookServiceImpl extends ServiceImpl<BookMapper, Book> implements Bo
 
     /**
      * Optimized method to get all reader data in a single call
-     * Reduces database queries from 5+ to just 3:
-     * 1. Book + chapter count (single query with subquery)
-     * 2. All chapters for this book
-     * 3. User subscription check (only if userId provided)
-     *
-     * Plus one UPDATE for incrementing views
+     * The user-independent part (book + chapter count, chapter index and
+     * first chapter content) is cached per book, so a cache hit costs no
+     * database query. Only canAccess and hasValidSubscription are computed
+     * per request, using the per-user entitlement cache.
      */
     @Override
     public ReaderDataDTO getReaderData(Long bookId, Long userId) {
-        ReaderDataDTO result = new ReaderDataDTO();
+        ReaderDataDTO snapshot = readerDataCacheService.getReaderSnapshot(bookId);
 
-        // Query 1: Get book with chapter count in single query
-        Map<String, Object> bookData = baseMapper.selectBookWithChapterCount(bookId);
-        if (bookData == null) {
-            throw new RuntimeException("Book not found");
-        }
+        // Increment views (in memory, flushed in batches)
+        incrementViews(bookId);
+
+        // Check subscription status (only once for all chapters)
+        boolean hasValidSubscription = userId != null && subscriptionService.isSubscriptionValid(userId);
 
-        // Convert map to BookVO
+        ReaderDataDTO result = new ReaderDataDTO();
         BookVO bookVO = new BookVO();
-        bookVO.setId(((Number) bookData.get("id")).longValue());
-        bookVO.setTitle((String) bookData.get("title"));
-        bookVO.setAuthor((String) bookData.get("author"));
-        bookVO.setCoverUrl((String) bookData.get("cover_url"));
-        bookVO.setDescription((String) bookData.get("description"));
-        bookVO.setCategory((String) bookData.get("category"));
-        bookVO.setStatus((String) bookData.get("status"));
-        bookVO.setCompletionStatus((String) bookData.get("completion_status"));
-        if (bookData.get("views") != null) {
-            bookVO.setViews(((Number) bookData.get("views")).longValue());
-        }
-        if (bookData.get("likes") != null) {
-            bookVO.setLikes(((Number) bookData.get("likes")).longValue());
-        }
-        if (bookData.get("rating") != null) {
-            bookVO.setRating(((Number) bookData.get("rating")).doubleValue());
-        }
-        if (bookData.get("chapter_count") != null) {
-            bookVO.setChapterCount(((Number) bookData.get("chapter_count")).intValue());
-        }
+        BeanUtils.copyProperties(snapshot.getBook(), bookVO);
         result.setBook(bookVO);
-
-        // Update: Increment views (atomic operation, doesn't fetch data)
-        baseMapper.incrementViews(bookId);
-
-        // Query 2: Check subscription status (only once for all chapters)
-        boolean hasValidSubscription = userId != null && subscriptionService.isSubscriptionValid(userId);
         result.setHasValidSubscription(hasValidSubscription);
 
-        // Query 3: Get all chapters for this book
-        List<Chapter> chapters = chapterMapper.selectList(
-                new LambdaQueryWrapper<Chapter>()
-                        .eq(Chapter::getBookId, bookId)
-                        .orderByAsc(Chapter::getOrderNum)
-        );
-
         // Convert chapters to VOs with access control
-        List<ChapterVO> chapterVOs = new ArrayList<>();
+        List<ChapterVO> chapterVOs = new ArrayList<>(snapshot.getChapters().size());
         boolean isFirst = true;
-        for (Chapter chapter : chapters) {
+        for (ChapterVO entry : snapshot.getChapters()) {
             ChapterVO vo = new ChapterVO();
-            vo.setId(chapter.getId());
-            vo.setBookId(chapter.getBookId());
-            vo.setTitle(chapter.getTitle());
-            vo.setOrderNum(chapter.getOrderNum());
-            vo.setIsFree(chapter.getIsFree());
+            BeanUtils.copyProperties(entry, vo);
 
             // Set access based on free status or subscription
-            boolean canAccess = Boolean.TRUE.equals(chapter.getIsFree()) || hasValidSubscription;
+            boolean canAccess = Boolean.TRUE.equals(entry.getIsFree()) || hasValidSubscription;
             vo.setCanAccess(canAccess);
 
-            // Include content only for the first chapter to reduce payload
+            // Include content only for the first accessible chapter to reduce payload
             if (isFirst && canAccess) {
-                vo.setContent(chapter.getContent());
                 isFirst = false;
+            } else {
+                vo.setContent(null);
             }
 
             chapterVOs.add(vo);
         }
+
         result.setChapters(chapterVOs);
 
         return result;
@@ -1,67 +1,241 @@
 package com.bookstore.service.impl;
 
 import com.bookstore.config.CacheConfig;
+import com.bookstore.config.CacheKeyHitTracker;
+import com.bookstore.config.CacheWeigher;
+import com.bookstore.config.TwoTierCache;
+import com.bookstore.dto.CachePolicyDTO;
+import com.bookstore.dto.CacheStatsDTO;
+import com.bookstore.service.BookSearchIndex;
+import com.bookstore.service.CacheInvalidationBus;
 import com.bookstore.service.CacheService;
+import com.bookstore.service.HomeFeedEngine;
+import com.bookstore.service.SubscriptionEntitlementCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
 import org.springframework.stereotype.Service;
 
-import java.util.Objects;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 缓存管理服务实现
+ *
+ * 先清除本节点缓存，再通过 CacheInvalidationBus 通知其他节点清除相同的条目。
+ * 收到通知的节点同样清除二级缓存：其他节点在修改提交前开始的加载可能在发起节点清除之后
+ * 才把旧值写入二级缓存，否则旧值会一直保留到二级缓存过期。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class CacheServiceImpl implements CacheService {
 
+    /**
+     * 估算非按字节限制的缓存内存时抽样的条目数
+     */
+    private static final int MEMORY_SAMPLE_SIZE = 100;
+
     private final CacheManager cacheManager;
+    private final HomeFeedEngine homeFeedEngine;
+    private final BookSearchIndex bookSearchIndex;
+    private final CacheInvalidationBus invalidationBus;
+    private final CacheKeyHitTracker cacheKeyHitTracker;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
+
+    /**
+     * 接收其他节点发布的失效事件，清除本地及二级缓存，不再转发
+     */
+    @PostConstruct
+    public void subscribeRemoteInvalidations() {
+        invalidationBus.subscribe(this::applyRemote);
+    }
 
     @Override
     public void evictAllBookCaches() {
         log.info("清除所有书籍相关缓存");
-        evictCache(CacheConfig.CACHE_HOME_BOOKS);
-        evictCache(CacheConfig.CACHE_BOOK_DETAILS);
-        evictCache(CacheConfig.CACHE_CHAPTERS);
-        evictCache(CacheConfig.CACHE_CHAPTER_CONTENT);
-        evictCache(CacheConfig.CACHE_READER_DATA);
+        clearAllBookCaches();
+        invalidationBus.publish(CacheInvalidationBus.TYPE_ALL_BOOKS, null);
     }
 
     @Override
     public void evictBookCache(Long bookId) {
         log.info("清除书籍缓存, bookId={}", bookId);
-        // 清除书籍详情缓存
-        evictCacheKey(CacheConfig.CACHE_BOOK_DETAILS, bookId);
-        // 清除该书籍的章节缓存
-        evictCacheKey(CacheConfig.CACHE_CHAPTERS, bookId);
-        // 清除 readerData 缓存 (key 格式可能是 bookId 或 bookId_userId)
-        evictCache(CacheConfig.CACHE_READER_DATA);
-        // 清除首页缓存（因为书籍可能出现在首页列表中）
-        evictCache(CacheConfig.CACHE_HOME_BOOKS);
+        clearBook(bookId);
+        invalidationBus.publish(CacheInvalidationBus.TYPE_BOOK, bookId);
     }
 
     @Override
     public void evictChapterCache(Long bookId) {
         log.info("清除章节列表缓存, bookId={}", bookId);
-        evictCacheKey(CacheConfig.CACHE_CHAPTERS, bookId);
-        // 同时清除 readerData 缓存
-        evictCache(CacheConfig.CACHE_READER_DATA);
+        clearChapters(bookId);
+        invalidationBus.publish(CacheInvalidationBus.TYPE_CHAPTERS, bookId);
     }
 
     @Override
     public void evictChapterContentCache(Long chapterId) {
         log.info("清除章节内容缓存, chapterId={}", chapterId);
-        evictCacheKey(CacheConfig.CACHE_CHAPTER_CONTENT, chapterId);
-        // 同时清除 readerData 缓存
-        evictCache(CacheConfig.CACHE_READER_DATA);
+        clearChapterContent(chapterId);
+        invalidationBus.publish(CacheInvalidationBus.TYPE_CHAPTER_CONTENT, chapterId);
     }
 
     @Override
     public void evictHomeBooksCache() {
         log.info("清除首页书籍列表缓存");
-        evictCache(CacheConfig.CACHE_HOME_BOOKS);
+        clearHomeBooks();
+        invalidationBus.publish(CacheInvalidationBus.TYPE_HOME, null);
+    }
+
+    @Override
+    public List<CachePolicyDTO> describeCaches() {
+        List<CachePolicyDTO> result = new ArrayList<>();
+        for (String name : CacheConfig.CACHE_NAMES) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<Object, Object> nativeCache = caffeineCache.getNativeCache();
+            Policy<Object, Object> policy = nativeCache.policy();
+
+            CachePolicyDTO dto = new CachePolicyDTO();
+            dto.setName(name);
+            dto.setEstimatedSize(nativeCache.estimatedSize());
+            dto.setSharedTier(caffeineCache instanceof TwoTierCache);
+            policy.expireAfterWrite().ifPresent(expiration ->
+                    dto.setExpireAfterWriteSeconds(expiration.getExpiresAfter(TimeUnit.SECONDS)));
+            policy.refreshAfterWrite().ifPresent(refresh ->
+                    dto.setRefreshAfterWriteSeconds(refresh.getRefreshesAfter(TimeUnit.SECONDS)));
+            policy.eviction().ifPresent(eviction -> {
+                if (eviction.isWeighted()) {
+                    dto.setMaximumWeightBytes(eviction.getMaximum());
+                    eviction.weightedSize().ifPresent(dto::setWeightedSizeBytes);
+                } else {
+                    dto.setMaximumSize(eviction.getMaximum());
+                }
+            });
+            result.add(dto);
+        }
+        return result;
+    }
+
+    private void applyRemote(String eventType, Long targetId) {
+        switch (eventType) {
+            // 二级缓存也再清除一次，覆盖本节点在发起节点清除之后写回的旧值
+            case CacheInvalidationBus.TYPE_ALL_BOOKS -> clearAllBookCaches();
+            case CacheInvalidationBus.TYPE_BOOK -> clearBook(targetId);
+            case CacheInvalidationBus.TYPE_CHAPTERS -> clearChapters(targetId);
+            case CacheInvalidationBus.TYPE_CHAPTER_CONTENT -> clearChapterContent(targetId);
+            case CacheInvalidationBus.TYPE_HOME -> clearHomeBooks();
+            default -> {
+                // Not a book cache event
+            }
+        }
+    }
+
+    private void clearAllBookCaches() {
+        evictCache(CacheConfig.CACHE_BOOK_DETAILS);
+        evictCache(CacheConfig.CACHE_CHAPTERS);
+        evictCache(CacheConfig.CACHE_CHAPTER_CONTENT);
+        evictCache(CacheConfig.CACHE_READER_DATA);
+        evictCache(CacheConfig.CACHE_CHAPTER_VERSIONS);
+        homeFeedEngine.invalidate();
+        bookSearchIndex.invalidate();
+    }
+
+    private void clearBook(Long bookId) {
+        // 清除书籍详情缓存
+        evictCacheKey(CacheConfig.CACHE_BOOK_DETAILS, bookId);
+        // 清除该书籍的章节缓存
+        evictCacheKey(CacheConfig.CACHE_CHAPTERS, bookId);
+        // readerData 以 bookId 为 key，只清除该书籍的条目，不再 clear 整个缓存
+        evictCacheKey(CacheConfig.CACHE_READER_DATA, bookId);
+        // 首页书架中只更新该书籍所在位置
+        homeFeedEngine.onBookChanged(bookId);
+        // 重新索引该书籍 (已删除的书籍会从索引中移除)
+        bookSearchIndex.upsert(bookId);
+    }
+
+    private void clearChapters(Long bookId) {
+        evictCacheKey(CacheConfig.CACHE_CHAPTERS, bookId);
+        // 同时清除该书籍的 readerData 条目 (包含目录和首章内容)
+        evictCacheKey(CacheConfig.CACHE_READER_DATA, bookId);
+    }
+
+    private void clearChapterContent(Long chapterId) {
+        evictCacheKey(CacheConfig.CACHE_CHAPTER_CONTENT, chapterId);
+        // 章节的 ETag 校验信息
+        evictCacheKey(CacheConfig.CACHE_CHAPTER_VERSIONS, chapterId);
+    }
+
+    private void clearHomeBooks() {
+        // 首页书架由 HomeFeedEngine 在内存中维护，标记重建
+        homeFeedEngine.invalidate();
+    }
+
+    @Override
+    public List<CacheStatsDTO> getCacheStats(int topKeys) {
+        List<CacheStatsDTO> result = new ArrayList<>();
+        for (String name : CacheConfig.CACHE_NAMES) {
+            if (!(cacheManager.getCache(name) instanceof CaffeineCache caffeineCache)) {
+                continue;
+            }
+            CacheStatsDTO dto = toStats(name, caffeineCache.getNativeCache());
+            if (caffeineCache instanceof TwoTierCache twoTierCache) {
+                dto.setSharedHits(twoTierCache.getSharedHits());
+                dto.setSharedMisses(twoTierCache.getSharedMisses());
+                dto.setSharedErrors(twoTierCache.getSharedErrors());
+            }
+            dto.setTopKeys(cacheKeyHitTracker.topKeys(name, topKeys).stream()
+                    .map(entry -> new CacheStatsDTO.KeyHits(String.valueOf(entry.getKey()), entry.getValue()))
+                    .toList());
+            dto.setKeyWindowStart(cacheKeyHitTracker.getWindowStart());
+            result.add(dto);
+        }
+        result.add(toStats(SubscriptionEntitlementCache.CACHE_NAME, subscriptionEntitlementCache.getNativeCache()));
+        return result;
+    }
+
+    private CacheStatsDTO toStats(String name, com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+        CacheStats stats = nativeCache.stats();
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.setName(name);
+        dto.setEstimatedSize(nativeCache.estimatedSize());
+        dto.setHitCount(stats.hitCount());
+        dto.setMissCount(stats.missCount());
+        dto.setHitRate(stats.hitRate());
+        dto.setLoadSuccessCount(stats.loadSuccessCount());
+        dto.setLoadFailureCount(stats.loadFailureCount());
+        dto.setAverageLoadMillis(stats.averageLoadPenalty() / 1_000_000.0);
+        dto.setEvictionCount(stats.evictionCount());
+        dto.setEstimatedMemoryBytes(estimateMemory(nativeCache));
+        return dto;
+    }
+
+    /**
+     * Weighted caches report their exact weight; others extrapolate from a sample of values
+     */
+    private long estimateMemory(com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+        var eviction = nativeCache.policy().eviction();
+        if (eviction.isPresent() && eviction.get().isWeighted() && eviction.get().weightedSize().isPresent()) {
+            return eviction.get().weightedSize().getAsLong();
+        }
+        long size = nativeCache.estimatedSize();
+        if (size == 0) {
+            return 0;
+        }
+        long sampled = 0;
+        int count = 0;
+        for (Object value : nativeCache.asMap().values()) {
+            sampled += CacheWeigher.estimate(value);
+            if (++count >= MEMORY_SAMPLE_SIZE) {
+                break;
+            }
+        }
+        return count == 0 ? 0 : sampled / count * size;
     }
 
     /**
@@ -0,0 +1,132 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.config.CacheConfig;
+import com.bookstore.config.CacheLoaderRegistry;
+import com.bookstore.dto.ChapterVersionDTO;
+import com.bookstore.entity.Chapter;
+import com.bookstore.exception.ChapterNotFoundException;
+import com.bookstore.repository.ChapterMapper;
+import com.bookstore.service.ChapterCacheService;
+import com.bookstore.vo.ChapterVO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 章节缓存服务实现
+ * 缓存 key 只包含章节 id，所有用户（含登录用户、SVIP 用户）共享同一份章节内容
+ */
+@Service
+@RequiredArgsConstructor
+public class ChapterCacheServiceImpl implements ChapterCacheService {
+
+    private final ChapterMapper chapterMapper;
+    private final CacheManager cacheManager;
+    private final CacheLoaderRegistry cacheLoaderRegistry;
+
+    /**
+     * 章节目录的后台刷新 (refresh-ahead) 使用与 getChapterIndex 相同的加载逻辑
+     */
+    @PostConstruct
+    public void registerCacheLoaders() {
+        cacheLoaderRegistry.register(CacheConfig.CACHE_CHAPTERS, key -> loadChapterIndex((Long) key));
+    }
+
+    @Override
+    @Cacheable(value = CacheConfig.CACHE_CHAPTER_CONTENT, key = "#chapterId", sync = true)
+    public ChapterVO getChapter(Long chapterId) {
+        Chapter chapter = chapterMapper.selectById(chapterId);
+        if (chapter == null) {
+            // sync = true does not support unless; throw so the missing id is not cached
+            throw new ChapterNotFoundException();
+        }
+        ChapterVO vo = new ChapterVO();
+        BeanUtils.copyProperties(chapter, vo);
+        vo.setCanAccess(null);
+        return vo;
+    }
+
+    @Override
+    public List<ChapterVO> getChapters(Long bookId, List<ChapterVO> indexEntries) {
+        Cache cache = cacheManager.getCache(CacheConfig.CACHE_CHAPTER_CONTENT);
+        Map<Long, ChapterVO> bodies = new HashMap<>();
+        Integer missFrom = null;
+        Integer missTo = null;
+        for (ChapterVO entry : indexEntries) {
+            ChapterVO cached = cache != null ? cache.get(entry.getId(), ChapterVO.class) : null;
+            if (cached != null) {
+                bodies.put(entry.getId(), cached);
+            } else {
+                missFrom = missFrom == null ? entry.getOrderNum() : Math.min(missFrom, entry.getOrderNum());
+                missTo = missTo == null ? entry.getOrderNum() : Math.max(missTo, entry.getOrderNum());
+            }
+        }
+
+        // One range query for all misses
+        if (missFrom != null) {
+            for (Chapter chapter : chapterMapper.selectChaptersByOrderRange(bookId, missFrom, missTo)) {
+                if (bodies.containsKey(chapter.getId())) {
+                    continue;
+                }
+                ChapterVO vo = new ChapterVO();
+                BeanUtils.copyProperties(chapter, vo);
+                vo.setCanAccess(null);
+                bodies.put(chapter.getId(), vo);
+                if (cache != null) {
+                    cache.put(chapter.getId(), vo);
+                }
+            }
+        }
+
+        List<ChapterVO> result = new ArrayList<>(indexEntries.size());
+        for (ChapterVO entry : indexEntries) {
+            ChapterVO body = bodies.get(entry.getId());
+            if (body != null) {
+                result.add(body);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    @Cacheable(value = CacheConfig.CACHE_CHAPTER_VERSIONS, key = "#chapterId", sync = true)
+    public ChapterVersionDTO getChapterVersion(Long chapterId) {
+        Chapter chapter = chapterMapper.selectChapterVersionById(chapterId);
+        if (chapter == null) {
+            throw new ChapterNotFoundException();
+        }
+        long updatedAt = chapter.getUpdatedAt() == null ? 0
+                : chapter.getUpdatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        return new ChapterVersionDTO(chapter.getId(), chapter.getBookId(), chapter.getIsFree(), updatedAt);
+    }
+
+    @Override
+    @Cacheable(value = CacheConfig.CACHE_CHAPTERS, key = "#bookId", sync = true)
+    public List<ChapterVO> getChapterIndex(Long bookId) {
+        return loadChapterIndex(bookId);
+    }
+
+    private List<ChapterVO> loadChapterIndex(Long bookId) {
+        return chapterMapper.selectChapterIndexByBookId(bookId).stream()
+                .map(chapter -> {
+                    ChapterVO vo = new ChapterVO();
+                    vo.setId(chapter.getId());
+                    vo.setBookId(chapter.getBookId());
+                    vo.setTitle(chapter.getTitle());
+                    vo.setOrderNum(chapter.getOrderNum());
+                    vo.setIsFree(chapter.getIsFree());
+                    return vo;
+                })
+                .toList();
+    }
+}
@@ -1,20 +1,19 @@
 package com.bookstore.service.impl;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
-import com.bookstore.config.CacheConfig;
 import com.bookstore.entity.Chapter;
+import com.bookstore.exception.ChapterNotFoundException;
 import com.bookstore.repository.ChapterMapper;
+import com.bookstore.service.ChapterCacheService;
 import com.bookstore.service.ChapterService;
 import com.bookstore.service.SubscriptionService;
 import com.bookstore.vo.ChapterVO;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ChapterServiceImpl extends ServiceImpl<ChapterMapper, Chapter> implements ChapterService {
@@ -22,6 +21,9 @@ public class ChapterServiceImpl extends ServiceImpl<ChapterMapper, Chapter> impl
     @Autowired
     private SubscriptionService subscriptionService;
 
+    @Autowired
+    private ChapterCacheService chapterCacheService;
+
     @Override
     public List<ChapterVO> getChaptersByBookId(Long bookId) {
         return getChaptersByBookId(bookId, false, null);
@@ -34,44 +36,31 @@ public class ChapterServiceImpl extends ServiceImpl<ChapterMapper, Chapter> impl
 
     @Override
     public List<ChapterVO> getChaptersByBookId(Long bookId, Boolean includeFirstChapter, Long userId) {
-        List<Chapter> chapters = list(new LambdaQueryWrapper<Chapter>()
-                .eq(Chapter::getBookId, bookId)
-                .orderByAsc(Chapter::getOrderNum));
+        // Table of contents from cache (no content column loaded)
+        List<ChapterVO> index = chapterCacheService.getChapterIndex(bookId);
 
         // Check if user has valid subscription
         boolean hasValidSubscription = userId != null && subscriptionService.isSubscriptionValid(userId);
 
-        if (includeFirstChapter != null && includeFirstChapter && !chapters.isEmpty()) {
-            // Convert chapters to VOs and include content for the first chapter
-            List<ChapterVO> chapterVOs = chapters.stream()
-                    .map(chapter -> {
-                        ChapterVO vo = convertToVO(chapter);
-                        // Set canAccess based on isFree or subscription status
-                        vo.setCanAccess(Boolean.TRUE.equals(chapter.getIsFree()) || hasValidSubscription);
-                        // Only include content for the first chapter
-                        if (chapter.getOrderNum() == 1 || (chapters.get(0).getId().equals(chapter.getId()))) {
-                            // Content is already included in convertToVO
-                            return vo;
-                        } else {
-                            // Remove content for other chapters
-                            vo.setContent(null);
-                            return vo;
-                        }
-                    })
-                    .collect(Collectors.toList());
-            return chapterVOs;
-        } else {
-            // No content for any chapter (old behavior)
-            return chapters.stream()
-                    .map(chapter -> {
-                        ChapterVO vo = convertToVO(chapter);
-                        vo.setContent(null);
-                        // Set canAccess based on isFree or subscription status
-                        vo.setCanAccess(Boolean.TRUE.equals(chapter.getIsFree()) || hasValidSubscription);
-                        return vo;
-                    })
-                    .collect(Collectors.toList());
+        List<ChapterVO> chapterVOs = new ArrayList<>(index.size());
+        for (ChapterVO entry : index) {
+            ChapterVO vo = new ChapterVO();
+            BeanUtils.copyProperties(entry, vo);
+            // Set canAccess based on isFree or subscription status
+            vo.setCanAccess(Boolean.TRUE.equals(entry.getIsFree()) || hasValidSubscription);
+            chapterVOs.add(vo);
+        }
+
+        // Only include content for the first chapter, fetched separately
+        if (Boolean.TRUE.equals(includeFirstChapter) && !chapterVOs.isEmpty()) {
+            ChapterVO first = chapterVOs.get(0);
+            try {
+                first.setContent(chapterCacheService.getChapter(first.getId()).getContent());
+            } catch (ChapterNotFoundException e) {
+                // Deleted after the table of contents was cached
+            }
         }
+        return chapterVOs;
     }
 
     @Override
@@ -80,30 +69,130 @@ public class ChapterServiceImpl extends ServiceImpl<ChapterMapper, Chapter> impl
     }
 
     @Override
-    @Cacheable(value = CacheConfig.CACHE_CHAPTER_CONTENT, key = "#id", condition = "#userId == null")
     public ChapterVO getChapterDetails(Long id, Long userId) {
-        Chapter chapter = getById(id);
-        if (chapter == null) {
-            throw new RuntimeException("Chapter not found");
-        }
-
-        // Check if user can access this chapter
-        boolean isFree = Boolean.TRUE.equals(chapter.getIsFree());
-        boolean hasValidSubscription = userId != null && subscriptionService.isSubscriptionValid(userId);
+        // Chapter body comes from the shared cache (keyed by chapter id only)
+        ChapterVO cached = chapterCacheService.getChapter(id);
 
-        if (!isFree && !hasValidSubscription) {
-            // Non-SVIP user trying to access paid chapter
-            throw new RuntimeException("SUBSCRIPTION_REQUIRED");
+        // Check if user can access this chapter (per request, never cached)
+        boolean isFree = Boolean.TRUE.equals(cached.getIsFree());
+        if (!isFree) {
+            boolean hasValidSubscription = userId != null && subscriptionService.isSubscriptionValid(userId);
+            if (!hasValidSubscription) {
+                // Non-SVIP user trying to access paid chapter
+                throw new RuntimeException("SUBSCRIPTION_REQUIRED");
+            }
         }
 
-        ChapterVO vo = convertToVO(chapter);
+        // Copy so the cached instance is never mutated
+        ChapterVO vo = new ChapterVO();
+        BeanUtils.copyProperties(cached, vo);
         vo.setCanAccess(true);
         return vo;
     }
 
-    private ChapterVO convertToVO(Chapter chapter) {
-        ChapterVO vo = new ChapterVO();
-        BeanUtils.copyProperties(chapter, vo);
-        return vo;
+    @Override
+    public List<ChapterVO> getChapterRun(Long bookId, Long fromChapterId, Integer fromOrderNum,
+                                         int maxChapters, int maxBytes, Long userId) {
+        List<ChapterVO> index = chapterCacheService.getChapterIndex(bookId);
+
+        // Locate the starting chapter
+        int start = 0;
+        if (fromChapterId != null || fromOrderNum != null) {
+            start = -1;
+            for (int i = 0; i < index.size(); i++) {
+                ChapterVO entry = index.get(i);
+                boolean matches = fromChapterId != null
+                        ? fromChapterId.equals(entry.getId())
+                        : entry.getOrderNum() != null && entry.getOrderNum() >= fromOrderNum;
+                if (matches) {
+                    start = i;
+                    break;
+                }
+            }
+            if (start < 0) {
+                throw new RuntimeException("Chapter not found");
+            }
+        }
+
+        // Collect accessible chapters up to maxChapters, stop at the first locked one
+        List<ChapterVO> accessible = new ArrayList<>();
+        ChapterVO locked = null;
+        Boolean hasValidSubscription = null;
+        for (int i = start; i < index.size() && accessible.size() < maxChapters; i++) {
+            ChapterVO entry = index.get(i);
+            if (!Boolean.TRUE.equals(entry.getIsFree())) {
+                if (hasValidSubscription == null) {
+                    // Check subscription only once, and only if a paid chapter is reached
+                    hasValidSubscription = userId != null && subscriptionService.isSubscriptionValid(userId);
+                }
+                if (!hasValidSubscription) {
+                    locked = entry;
+                    break;
+                }
+            }
+            accessible.add(entry);
+        }
+
+        // Bodies from the shared chapter cache, loaded in slices so chapters past the byte budget are never read:
+        // the first slice is one chapter, later slices are sized from the average chapter so far
+        List<ChapterVO> result = new ArrayList<>();
+        long bytes = 0;
+        int next = 0;
+        int sliceSize = 1;
+        while (next < accessible.size()) {
+            if (bytes >= maxBytes) {
+                // Budget reached, the client fetches the rest on the next prefetch
+                return result;
+            }
+            List<ChapterVO> slice = accessible.subList(next, Math.min(next + sliceSize, accessible.size()));
+            next += slice.size();
+            for (ChapterVO body : chapterCacheService.getChapters(bookId, slice)) {
+                long size = utf8Length(body.getContent());
+                if (!result.isEmpty() && bytes + size > maxBytes) {
+                    return result;
+                }
+                bytes += size;
+                ChapterVO vo = new ChapterVO();
+                BeanUtils.copyProperties(body, vo);
+                vo.setCanAccess(true);
+                result.add(vo);
+            }
+            long averageBytes = result.isEmpty() ? 0 : bytes / result.size();
+            sliceSize = averageBytes == 0 ? 1 : (int) Math.max(1, (maxBytes - bytes) / averageBytes);
+        }
+
+        if (locked != null) {
+            ChapterVO vo = new ChapterVO();
+            BeanUtils.copyProperties(locked, vo);
+            vo.setContent(null);
+            vo.setCanAccess(false);
+            result.add(vo);
+        }
+        return result;
+    }
+
+    /**
+     * UTF-8 encoded length, counted without encoding the string
+     */
+    private static long utf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length += 1;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
     }
 }
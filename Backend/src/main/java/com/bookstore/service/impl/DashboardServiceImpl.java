@@ -6,14 +6,12 @@ import com.bookstore.entity.Distributor;
 import com.bookstore.entity.Order;
 import com.bookstore.repository.*;
 import com.bookstore.service.DashboardService;
+import com.bookstore.service.DashboardStatsTracker;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -22,57 +20,16 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class DashboardServiceImpl implements DashboardService {
 
-    private final UserMapper userMapper;
     private final BookMapper bookMapper;
     private final OrderRepository orderRepository;
     private final BookPasscodeRepository passcodeRepository;
     private final DistributorRepository distributorRepository;
+    private final DashboardStatsTracker dashboardStatsTracker;
 
     @Override
     public DashboardStatsDTO getDashboardStats() {
-        DashboardStatsDTO stats = new DashboardStatsDTO();
-
-        // 总用户数
-        Long totalUsers = userMapper.selectCount(null);
-        stats.setTotalUsers(totalUsers);
-
-        // 活跃用户数（有有效订阅的用户）
-        QueryWrapper<com.bookstore.entity.User> activeUserQuery = new QueryWrapper<>();
-        activeUserQuery.eq("subscription_status", "active");
-        Long activeUsers = userMapper.selectCount(activeUserQuery);
-        stats.setActiveUsers(activeUsers);
-
-        // 总书籍数
-        Long totalBooks = bookMapper.selectCount(null);
-        stats.setTotalBooks(totalBooks);
-
-        // 总订单数
-        Long totalOrders = orderRepository.selectCount(null);
-        stats.setTotalOrders(totalOrders);
-
-        // 总收益（只统计已支付订单）
-        QueryWrapper<Order> paidOrderQuery = new QueryWrapper<>();
-        paidOrderQuery.eq("status", "Paid");
-        List<Order> paidOrders = orderRepository.selectList(paidOrderQuery);
-        BigDecimal totalRevenue = paidOrders.stream()
-                .map(Order::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTotalRevenue(totalRevenue);
-
-        // 今日收益（只统计已支付订单）
-        LocalDateTime todayStart = LocalDate.now().atStartOfDay();
-        LocalDateTime todayEnd = LocalDate.now().atTime(LocalTime.MAX);
-        QueryWrapper<Order> todayOrderQuery = new QueryWrapper<>();
-        todayOrderQuery.eq("status", "Paid")
-                .ge("create_time", todayStart)
-                .le("create_time", todayEnd);
-        List<Order> todayOrders = orderRepository.selectList(todayOrderQuery);
-        BigDecimal todayRevenue = todayOrders.stream()
-                .map(Order::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        stats.setTodayRevenue(todayRevenue);
-
-        return stats;
+        // Running totals kept by DashboardStatsTracker, reconciled in the background
+        return dashboardStatsTracker.getStats();
     }
 
     @Override
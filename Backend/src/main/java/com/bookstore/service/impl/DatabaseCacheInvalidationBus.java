@@ -0,0 +1,193 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.config.SchedulingConfig;
+import com.bookstore.entity.CacheInvalidationLog;
+import com.bookstore.repository.CacheInvalidationLogRepository;
+import com.bookstore.service.CacheInvalidationBus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * 基于数据库失效日志表的缓存失效总线
+ *
+ * 发布：向 cache_invalidation_log 插入一行 (带本节点标识)。
+ * 订阅：每个节点按 poll-interval-ms 轮询 id 大于已处理位置的记录，跳过本节点发布的事件，
+ * 其余事件交给监听器清除本地缓存，因此任一节点的修改最迟在一个轮询周期后对所有节点生效。
+ * 轮询失败时位置不前进，恢复后从断点继续补齐。
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache-invalidation.type", havingValue = "database", matchIfMissing = true)
+public class DatabaseCacheInvalidationBus implements CacheInvalidationBus {
+
+    /**
+     * 自增 id 按插入顺序分配但可能乱序提交，每次轮询回看最近的 id 区间以补上迟到的记录
+     */
+    private static final long REPLAY_WINDOW = 100;
+
+    /**
+     * 发布失败时暂存待重试的事件上限，超出后改为广播一次全量失效
+     */
+    private static final int MAX_PENDING = 10_000;
+
+    private final CacheInvalidationLogRepository logRepository;
+    private final String nodeId;
+
+    @Value("${cache-invalidation.batch-size:500}")
+    private int batchSize;
+
+    @Value("${cache-invalidation.retention-hours:24}")
+    private long retentionHours;
+
+    private final List<BiConsumer<String, Long>> listeners = new CopyOnWriteArrayList<>();
+    private final Queue<CacheInvalidationLog> pendingPublish = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingCount = new AtomicInteger();
+    private volatile boolean pendingOverflow;
+
+    // Only touched by the polling thread
+    private Long startId;
+    private long lastSeenId;
+    private final Set<Long> appliedIds = new HashSet<>();
+
+    public DatabaseCacheInvalidationBus(CacheInvalidationLogRepository logRepository) {
+        this.logRepository = logRepository;
+        this.nodeId = resolveNodeId();
+        log.info("缓存失效总线: database, 节点标识 {}", nodeId);
+    }
+
+    @Override
+    public void publish(String eventType, Long targetId) {
+        CacheInvalidationLog event = new CacheInvalidationLog();
+        event.setEventType(eventType);
+        event.setTargetId(targetId);
+        event.setSourceNode(nodeId);
+        event.setCreatedAt(LocalDateTime.now());
+        try {
+            logRepository.insert(event);
+        } catch (Exception e) {
+            log.error("发布缓存失效事件失败, 稍后重试: {} {}", eventType, targetId, e);
+            enqueuePending(event);
+        }
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, Long> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 轮询其他节点发布的失效事件，默认每秒一次
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.poll-interval-ms:1000}")
+    public void poll() {
+        try {
+            retryPending();
+            if (startId == null) {
+                // Events published before this node started are already reflected in the database
+                startId = logRepository.selectMaxId();
+                lastSeenId = startId;
+                return;
+            }
+            List<CacheInvalidationLog> events;
+            long previousId;
+            do {
+                previousId = lastSeenId;
+                long afterId = Math.max(startId, lastSeenId - REPLAY_WINDOW);
+                events = logRepository.selectAfter(afterId, batchSize);
+                for (CacheInvalidationLog event : events) {
+                    if (appliedIds.add(event.getId())) {
+                        lastSeenId = Math.max(lastSeenId, event.getId());
+                        if (!nodeId.equals(event.getSourceNode())) {
+                            dispatch(event);
+                        }
+                    }
+                }
+                long floor = lastSeenId - REPLAY_WINDOW;
+                appliedIds.removeIf(id -> id <= floor);
+            } while (events.size() >= batchSize && lastSeenId > previousId);
+        } catch (Exception e) {
+            log.error("轮询缓存失效事件失败, 下次从 id {} 继续", lastSeenId, e);
+        }
+    }
+
+    /**
+     * 清理过期的失效日志，每小时一次
+     */
+    @Scheduled(fixedDelayString = "${cache-invalidation.cleanup-interval-ms:3600000}",
+            scheduler = SchedulingConfig.BACKGROUND_SCHEDULER)
+    public void cleanup() {
+        try {
+            int deleted = logRepository.deleteBefore(LocalDateTime.now().minusHours(retentionHours));
+            if (deleted > 0) {
+                log.info("清理缓存失效日志 {} 条", deleted);
+            }
+        } catch (Exception e) {
+            log.error("清理缓存失效日志失败", e);
+        }
+    }
+
+    private void dispatch(CacheInvalidationLog event) {
+        log.debug("应用节点 {} 的缓存失效事件: {} {}", event.getSourceNode(), event.getEventType(), event.getTargetId());
+        for (BiConsumer<String, Long> listener : listeners) {
+            try {
+                listener.accept(event.getEventType(), event.getTargetId());
+            } catch (Exception e) {
+                log.error("处理缓存失效事件失败: {} {}", event.getEventType(), event.getTargetId(), e);
+            }
+        }
+    }
+
+    private void enqueuePending(CacheInvalidationLog event) {
+        if (pendingCount.incrementAndGet() > MAX_PENDING) {
+            pendingCount.decrementAndGet();
+            pendingOverflow = true;
+            return;
+        }
+        pendingPublish.add(event);
+    }
+
+    private void retryPending() {
+        if (pendingOverflow) {
+            // Too many events were lost, make every node drop all book caches instead
+            CacheInvalidationLog event = new CacheInvalidationLog();
+            event.setEventType(TYPE_ALL_BOOKS);
+            event.setSourceNode(nodeId);
+            event.setCreatedAt(LocalDateTime.now());
+            logRepository.insert(event);
+            pendingOverflow = false;
+        }
+        CacheInvalidationLog event;
+        while ((event = pendingPublish.peek()) != null) {
+            logRepository.insert(event);
+            pendingPublish.poll();
+            pendingCount.decrementAndGet();
+        }
+    }
+
+    private static String resolveNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+        String id = host + "-" + suffix;
+        return id.length() > 64 ? id.substring(id.length() - 64) : id;
+    }
+}
@@ -1,7 +1,6 @@
 package com.bookstore.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.bookstore.config.GoogleSignInConfig;
 import com.bookstore.dto.GoogleSignInRequest;
 import com.bookstore.entity.User;
 import com.bookstore.repository.UserMapper;
@@ -10,29 +9,31 @@ import com.bookstore.util.JwtUtils;
 import com.bookstore.vo.UserVO;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
-import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import java.util.Arrays;
 import java.util.UUID;
 
 @Slf4j
 @Service
 public class GoogleSignInServiceImpl implements GoogleSignInService {
 
-    @Autowired
-    private GoogleSignInConfig googleConfig;
-
     @Autowired
     private UserMapper userMapper;
 
     @Autowired
     private JwtUtils jwtUtils;
 
+    @Autowired
+    private GoogleIdTokenVerifier googleIdTokenVerifier;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Override
     public UserVO signInWithGoogle(GoogleSignInRequest request) {
         // 1. Verify the ID token and extract claims
@@ -111,18 +112,29 @@ public class GoogleSignInServiceImpl implements GoogleSignInService {
         user.setDeleted(0);
     }
 
+    /**
+     * Verify with the shared verifier and record latency by outcome
+     */
+    private GoogleIdToken verify(String idTokenString) throws Exception {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String result = "invalid";
+        try {
+            GoogleIdToken idToken = googleIdTokenVerifier.verify(idTokenString);
+            if (idToken != null) {
+                result = "valid";
+            }
+            return idToken;
+        } catch (Exception e) {
+            result = "error";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("google.idtoken.verify", "result", result));
+        }
+    }
+
     private GoogleTokenClaims verifyIdToken(String idTokenString) {
         try {
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                    new NetHttpTransport(),
-                    GsonFactory.getDefaultInstance())
-                    .setAudience(Arrays.asList(
-                            googleConfig.getWebClientId(),
-                            googleConfig.getAndroidClientId(),
-                            googleConfig.getIosClientId()))
-                    .build();
-
-            GoogleIdToken idToken = verifier.verify(idTokenString);
+            GoogleIdToken idToken = verify(idTokenString);
             if (idToken == null) {
                 throw new RuntimeException("Invalid Google ID token");
             }
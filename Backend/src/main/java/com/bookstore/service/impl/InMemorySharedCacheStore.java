@@ -0,0 +1,74 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.service.SharedCacheStore;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 进程内的二级缓存替身，行为与共享存储一致 (按字节数组存取、按 TTL 过期)，
+ * 用于测试和没有 Redis 的本地环境
+ */
+@Component
+@ConditionalOnProperty(name = "cache-l2.type", havingValue = "memory")
+public class InMemorySharedCacheStore implements SharedCacheStore {
+
+    private static final long MAX_BYTES = 256L * 1024 * 1024;
+
+    private final Cache<String, Entry> store = Caffeine.newBuilder()
+            .maximumWeight(MAX_BYTES)
+            .weigher((String key, Entry entry) -> entry.value().length + key.length())
+            .expireAfter(new EntryExpiry())
+            .build();
+
+    @Override
+    public byte[] get(String cacheName, Object key) {
+        Entry entry = store.getIfPresent(storeKey(cacheName, key));
+        return entry == null ? null : entry.value();
+    }
+
+    @Override
+    public void put(String cacheName, Object key, byte[] value, Duration ttl) {
+        store.put(storeKey(cacheName, key), new Entry(value, ttl));
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        store.invalidate(storeKey(cacheName, key));
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        String prefix = cacheName + ":";
+        store.asMap().keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static String storeKey(String cacheName, Object key) {
+        return cacheName + ":" + key;
+    }
+
+    private record Entry(byte[] value, Duration ttl) {
+    }
+
+    private static class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return entry.ttl().toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.service.CacheInvalidationBus;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.function.BiConsumer;
+
+/**
+ * 单节点部署使用的失效总线，不向外广播
+ */
+@Component
+@ConditionalOnProperty(name = "cache-invalidation.type", havingValue = "local")
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publish(String eventType, Long targetId) {
+        // Single node: caches were already evicted locally
+    }
+
+    @Override
+    public void subscribe(BiConsumer<String, Long> listener) {
+        // No other nodes, nothing will ever be delivered
+    }
+}
@@ -0,0 +1,115 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.config.CacheConfig;
+import com.bookstore.config.CacheLoaderRegistry;
+import com.bookstore.dto.ReaderDataDTO;
+import com.bookstore.exception.ChapterNotFoundException;
+import com.bookstore.repository.BookMapper;
+import com.bookstore.service.ChapterCacheService;
+import com.bookstore.service.ReaderDataCacheService;
+import com.bookstore.vo.BookVO;
+import com.bookstore.vo.ChapterVO;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 阅读页数据缓存服务实现
+ * 热门书籍打开阅读页时，书籍信息、目录和首章内容直接从内存返回
+ */
+@Service
+@RequiredArgsConstructor
+public class ReaderDataCacheServiceImpl implements ReaderDataCacheService {
+
+    private final BookMapper bookMapper;
+    private final ChapterCacheService chapterCacheService;
+    private final CacheLoaderRegistry cacheLoaderRegistry;
+
+    /**
+     * 阅读页快照的后台刷新 (refresh-ahead) 使用与 getReaderSnapshot 相同的加载逻辑
+     */
+    @PostConstruct
+    public void registerCacheLoaders() {
+        cacheLoaderRegistry.register(CacheConfig.CACHE_READER_DATA, key -> loadReaderSnapshot((Long) key));
+    }
+
+    @Override
+    @Cacheable(value = CacheConfig.CACHE_READER_DATA, key = "#bookId", sync = true)
+    public ReaderDataDTO getReaderSnapshot(Long bookId) {
+        return loadReaderSnapshot(bookId);
+    }
+
+    private ReaderDataDTO loadReaderSnapshot(Long bookId) {
+        ReaderDataDTO snapshot = new ReaderDataDTO();
+
+        // Book + chapter count in single query
+        Map<String, Object> bookData = bookMapper.selectBookWithChapterCount(bookId);
+        if (bookData == null) {
+            throw new RuntimeException("Book not found");
+        }
+        snapshot.setBook(toBookVO(bookData));
+
+        // Chapter index (without content)
+        List<ChapterVO> index = chapterCacheService.getChapterIndex(bookId);
+        List<ChapterVO> chapters = new ArrayList<>(index.size());
+        for (ChapterVO entry : index) {
+            ChapterVO vo = new ChapterVO();
+            BeanUtils.copyProperties(entry, vo);
+            chapters.add(vo);
+        }
+
+        // Content of the first chapter (subscribers) and the first free chapter (everyone else)
+        if (!chapters.isEmpty()) {
+            fillContent(chapters.get(0));
+            chapters.stream()
+                    .filter(vo -> Boolean.TRUE.equals(vo.getIsFree()))
+                    .findFirst()
+                    .ifPresent(this::fillContent);
+        }
+        snapshot.setChapters(Collections.unmodifiableList(chapters));
+        return snapshot;
+    }
+
+    private void fillContent(ChapterVO vo) {
+        if (vo.getContent() != null) {
+            return;
+        }
+        try {
+            vo.setContent(chapterCacheService.getChapter(vo.getId()).getContent());
+        } catch (ChapterNotFoundException e) {
+            // Deleted after the table of contents was cached
+        }
+    }
+
+    private BookVO toBookVO(Map<String, Object> bookData) {
+        BookVO bookVO = new BookVO();
+        bookVO.setId(((Number) bookData.get("id")).longValue());
+        bookVO.setTitle((String) bookData.get("title"));
+        bookVO.setAuthor((String) bookData.get("author"));
+        bookVO.setCoverUrl((String) bookData.get("cover_url"));
+        bookVO.setDescription((String) bookData.get("description"));
+        bookVO.setCategory((String) bookData.get("category"));
+        bookVO.setStatus((String) bookData.get("status"));
+        bookVO.setCompletionStatus((String) bookData.get("completion_status"));
+        if (bookData.get("views") != null) {
+            bookVO.setViews(((Number) bookData.get("views")).longValue());
+        }
+        if (bookData.get("likes") != null) {
+            bookVO.setLikes(((Number) bookData.get("likes")).longValue());
+        }
+        if (bookData.get("rating") != null) {
+            bookVO.setRating(((Number) bookData.get("rating")).doubleValue());
+        }
+        if (bookData.get("chapter_count") != null) {
+            bookVO.setChapterCount(((Number) bookData.get("chapter_count")).intValue());
+        }
+        return bookVO;
+    }
+}
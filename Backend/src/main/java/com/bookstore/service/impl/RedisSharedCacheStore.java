@@ -0,0 +1,90 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.service.SharedCacheStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于 Redis 的二级缓存，所有节点共享
+ * key 格式: {key-prefix}{cacheName}:{key}
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "cache-l2.type", havingValue = "redis")
+public class RedisSharedCacheStore implements SharedCacheStore {
+
+    private static final int CLEAR_BATCH_SIZE = 500;
+
+    private final RedisTemplate<String, byte[]> redisTemplate;
+
+    @Value("${cache-l2.key-prefix:novelpop:cache:}")
+    private String keyPrefix;
+
+    public RedisSharedCacheStore(RedisConnectionFactory connectionFactory) {
+        RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(RedisSerializer.string());
+        template.setValueSerializer(RedisSerializer.byteArray());
+        template.afterPropertiesSet();
+        this.redisTemplate = template;
+    }
+
+    @Override
+    public byte[] get(String cacheName, Object key) {
+        return redisTemplate.opsForValue().get(storeKey(cacheName, key));
+    }
+
+    @Override
+    public void put(String cacheName, Object key, byte[] value, Duration ttl) {
+        redisTemplate.opsForValue().set(storeKey(cacheName, key), value, ttl);
+    }
+
+    @Override
+    public void evict(String cacheName, Object key) {
+        redisTemplate.delete(storeKey(cacheName, key));
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        ScanOptions options = ScanOptions.scanOptions()
+                .match(keyPrefix + cacheName + ":*")
+                .count(CLEAR_BATCH_SIZE)
+                .build();
+        List<String> batch = new ArrayList<>(CLEAR_BATCH_SIZE);
+        long deleted = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= CLEAR_BATCH_SIZE) {
+                    deleted += deleteBatch(batch);
+                }
+            }
+        }
+        deleted += deleteBatch(batch);
+        log.info("清除二级缓存 {}: {} 条", cacheName, deleted);
+    }
+
+    private long deleteBatch(List<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long count = redisTemplate.delete(keys);
+        keys.clear();
+        return count == null ? 0 : count;
+    }
+
+    private String storeKey(String cacheName, Object key) {
+        return keyPrefix + cacheName + ":" + key;
+    }
+}
@@ -0,0 +1,111 @@
+package com.bookstore.service.impl;
+
+import com.bookstore.dto.ChapterVersionDTO;
+import com.bookstore.dto.ReaderDataDTO;
+import com.bookstore.exception.ChapterNotFoundException;
+import com.bookstore.service.ChapterCacheService;
+import com.bookstore.service.ReaderDataCacheService;
+import com.bookstore.service.ResourceVersionService;
+import com.bookstore.service.SubscriptionService;
+import com.bookstore.vo.BookVO;
+import com.bookstore.vo.ChapterVO;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * ETag 计算实现
+ * 同一资源对有无订阅的用户返回的内容不同 (canAccess / 正文)，因此访问权限也参与计算
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceVersionServiceImpl implements ResourceVersionService {
+
+    private final ChapterCacheService chapterCacheService;
+    private final ReaderDataCacheService readerDataCacheService;
+    private final SubscriptionService subscriptionService;
+
+    @Override
+    public String bookDetailsTag(BookVO book) {
+        if (book == null) {
+            return null;
+        }
+        return "b-" + md5(book.toString());
+    }
+
+    @Override
+    public String chapterListTag(Long bookId, Boolean includeFirstChapter, Long userId) {
+        List<ChapterVO> index = chapterCacheService.getChapterIndex(bookId);
+        StringBuilder sb = new StringBuilder(index.size() * 48 + 32);
+        sb.append(hasValidSubscription(userId)).append('\n');
+        appendIndex(sb, index);
+        if (Boolean.TRUE.equals(includeFirstChapter) && !index.isEmpty()) {
+            appendVersion(sb, index.get(0).getId());
+        }
+        return "cl-" + md5(sb.toString());
+    }
+
+    @Override
+    public String chapterTag(Long chapterId, Long userId) {
+        ChapterVersionDTO version;
+        try {
+            version = chapterCacheService.getChapterVersion(chapterId);
+        } catch (ChapterNotFoundException e) {
+            // No tag; the request itself reports the missing chapter
+            return null;
+        }
+        if (!Boolean.TRUE.equals(version.getIsFree()) && !hasValidSubscription(userId)) {
+            // Locked chapters are answered with SUBSCRIPTION_REQUIRED, never with 304
+            return null;
+        }
+        return "ch-" + chapterId + "-" + version.getUpdatedAtMillis();
+    }
+
+    @Override
+    public String readerDataTag(Long bookId, Long userId) {
+        ReaderDataDTO snapshot = readerDataCacheService.getReaderSnapshot(bookId);
+        boolean hasValidSubscription = hasValidSubscription(userId);
+        StringBuilder sb = new StringBuilder(snapshot.getChapters().size() * 48 + 512);
+        sb.append(hasValidSubscription).append('\n');
+        sb.append(snapshot.getBook()).append('\n');
+        appendIndex(sb, snapshot.getChapters());
+        // Same rule as getReaderData: content of the first accessible chapter
+        for (ChapterVO entry : snapshot.getChapters()) {
+            if (Boolean.TRUE.equals(entry.getIsFree()) || hasValidSubscription) {
+                appendVersion(sb, entry.getId());
+                break;
+            }
+        }
+        return "rd-" + md5(sb.toString());
+    }
+
+    private boolean hasValidSubscription(Long userId) {
+        return userId != null && subscriptionService.isSubscriptionValid(userId);
+    }
+
+    private static void appendIndex(StringBuilder sb, List<ChapterVO> index) {
+        for (ChapterVO entry : index) {
+            sb.append(entry.getId()).append('|')
+                    .append(entry.getTitle()).append('|')
+                    .append(entry.getOrderNum()).append('|')
+                    .append(entry.getIsFree()).append('\n');
+        }
+    }
+
+    private void appendVersion(StringBuilder sb, Long chapterId) {
+        long updatedAt;
+        try {
+            updatedAt = chapterCacheService.getChapterVersion(chapterId).getUpdatedAtMillis();
+        } catch (ChapterNotFoundException e) {
+            updatedAt = 0;
+        }
+        sb.append(chapterId).append('@').append(updatedAt).append('\n');
+    }
+
+    private static String md5(String value) {
+        return DigestUtils.md5DigestAsHex(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -17,7 +17,9 @@ import com.bookstore.repository.SubscriptionEventRepository;
 import com.bookstore.repository.SubscriptionProductRepository;
 import com.bookstore.repository.UserMapper;
 import com.bookstore.service.AppleReceiptVerificationService;
+import com.bookstore.service.DashboardStatsTracker;
 import com.bookstore.service.GoogleReceiptVerificationService;
+import com.bookstore.service.SubscriptionEntitlementCache;
 import com.bookstore.service.SubscriptionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -48,6 +50,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
     private final SubscriptionEventRepository subscriptionEventRepository;
     private final AppleReceiptVerificationService appleVerificationService;
     private final GoogleReceiptVerificationService googleVerificationService;
+    private final SubscriptionEntitlementCache subscriptionEntitlementCache;
+    private final DashboardStatsTracker dashboardStatsTracker;
 
     // Commission rate constant (30%)
     private static final BigDecimal COMMISSION_RATE = new BigDecimal("30.00");
@@ -119,6 +123,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
         // Save order
         orderRepository.insert(order);
+        dashboardStatsTracker.recordCreated(order);
 
         // Update user subscription status
         updateUserSubscriptionStatus(userId, order);
@@ -174,6 +179,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         // Update user status
         user.setSubscriptionStatus("cancelled");
         userMapper.updateById(user);
+        subscriptionEntitlementCache.update(user);
 
         // Update current active order
         QueryWrapper<Order> queryWrapper = new QueryWrapper<>();
@@ -226,6 +232,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         user.setSubscriptionEndDate(finalEndDate);
         user.setSubscriptionPlanType(order.getSubscriptionPeriod());
         userMapper.updateById(user);
+        subscriptionEntitlementCache.update(user);
 
         log.info("用户 {} 订阅状态已更新 - 最终到期时间: {}", userId, finalEndDate);
     }
@@ -260,22 +267,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
     @Override
     public boolean isSubscriptionValid(Long userId) {
-        User user = userMapper.selectById(userId);
-        if (user == null) {
-            return false;
-        }
-
-        // Only check SVIP status
-        if (Boolean.TRUE.equals(user.getIsSvip())) {
-            // If user has subscriptionEndDate, check if it's still valid
-            if (user.getSubscriptionEndDate() != null) {
-                return LocalDateTime.now().isBefore(user.getSubscriptionEndDate());
-            }
-            // If no end date set, SVIP is permanent (manually assigned)
-            return true;
-        }
-
-        return false;
+        // Served from the per-user entitlement cache, loads users row on miss
+        return subscriptionEntitlementCache.isSubscriptionValid(userId);
     }
 
     @Override
@@ -308,6 +301,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 user.setSubscriptionStatus("expired");
                 user.setIsSvip(false);
                 userMapper.updateById(user);
+                subscriptionEntitlementCache.update(user);
 
                 successCount++;
             } catch (Exception e) {
@@ -549,6 +543,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
 
         // Save order
         orderRepository.insert(order);
+        dashboardStatsTracker.recordCreated(order);
         log.info("订单创建成功 - 订单号: {}, 订单ID: {}, 金额: {}", orderNo, order.getId(), order.getAmount());
 
         // Record this transaction as processed to prevent duplicate processing
@@ -0,0 +1,29 @@
+package com.bookstore.util;
+
+import io.jsonwebtoken.Claims;
+
+import java.util.Date;
+
+/**
+ * 已验证 JWT 的身份信息
+ *
+ * 令牌只解析、验签一次，之后从该对象读取 userId / username / role。
+ *
+ * @param expiresAtMillis exp 声明 (毫秒)，令牌未设置 exp 时为 Long.MAX_VALUE
+ */
+public record JwtPrincipal(Long userId, String username, String role, long expiresAtMillis) {
+
+    static JwtPrincipal of(Claims claims) {
+        Object userId = claims.get("userId");
+        Date expiration = claims.getExpiration();
+        return new JwtPrincipal(
+                userId instanceof Number ? ((Number) userId).longValue() : null,
+                claims.get("username", String.class),
+                claims.get("role", String.class),
+                expiration == null ? Long.MAX_VALUE : expiration.getTime());
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+}
@@ -1,28 +1,58 @@
 package com.bookstore.util;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtils {
 
+    /**
+     * 已验证令牌缓存的最长存活时间，令牌 exp 更早时以 exp 为准
+     */
+    private static final Duration MAX_VERIFIED_TTL = Duration.ofHours(1);
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    // Key and parser are immutable and thread-safe, so build them once
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    /**
+     * token -> 已验签的身份信息，条目在令牌 exp 时过期
+     */
+    private Cache<String, JwtPrincipal> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new PrincipalExpiry())
+                .build();
     }
 
     public String generateToken(Long userId, String username, String role) {
@@ -42,40 +72,74 @@ public class JwtUtils {
                 .claims(claims)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public Claims extractClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    public Long getUserIdFromToken(String token) {
-        Object userId = extractClaims(token).get("userId");
-        if (userId instanceof Integer) {
-            return ((Integer) userId).longValue();
+    /**
+     * Verify the token once and return its principal, or null if invalid or expired
+     */
+    public JwtPrincipal parseToken(String token) {
+        try {
+            return verify(token);
+        } catch (Exception e) {
+            return null;
         }
-        return (Long) userId;
+    }
+
+    public Long getUserIdFromToken(String token) {
+        return verify(token).userId();
     }
 
     public String getUsernameFromToken(String token) {
-        return extractClaims(token).get("username", String.class);
+        return verify(token).username();
     }
 
     public String getRoleFromToken(String token) {
-        return extractClaims(token).get("role", String.class);
+        return verify(token).role();
     }
 
     public boolean validateToken(String token) {
-        try {
-            extractClaims(token);
-            return true;
-        } catch (Exception e) {
-            return false;
+        return parseToken(token) != null;
+    }
+
+    /**
+     * Return the cached principal, verifying the signature only on a cache miss.
+     * Throws JwtException like extractClaims when the token is invalid.
+     */
+    private JwtPrincipal verify(String token) {
+        JwtPrincipal cached = verifiedTokens.getIfPresent(token);
+        if (cached != null && !cached.isExpired(System.currentTimeMillis())) {
+            return cached;
+        }
+        JwtPrincipal principal = JwtPrincipal.of(extractClaims(token));
+        verifiedTokens.put(token, principal);
+        return principal;
+    }
+
+    /**
+     * Expire entries at the token's exp claim, capped by MAX_VERIFIED_TTL
+     */
+    private static class PrincipalExpiry implements Expiry<String, JwtPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String key, JwtPrincipal value, long currentTime) {
+            long untilExp = value.expiresAtMillis() - System.currentTimeMillis();
+            return Math.max(0, Math.min(MAX_VERIFIED_TTL.toNanos(), TimeUnit.MILLISECONDS.toNanos(untilExp)));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, JwtPrincipal value, long currentTime, long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,11 @@
+-- Cache invalidation log shared by all backend nodes
+-- Each node inserts a row after evicting its local caches; the other nodes poll new rows and evict the same entries
+CREATE TABLE IF NOT EXISTS cache_invalidation_log (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(32) NOT NULL COMMENT 'all_books, book, chapters, chapter_content, home, user_entitlement',
+    target_id BIGINT NULL COMMENT 'Book / chapter / user id, NULL for cache-wide events',
+    source_node VARCHAR(64) NOT NULL COMMENT 'Node that published the event',
+    created_at DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    INDEX idx_created_at (created_at)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='Cross-node cache invalidation events';
@@ -21,5 +21,9 @@ ALTER TABLE books ADD INDEX idx_title (title(100));
 -- Used by: searchBooks - author search
 ALTER TABLE books ADD INDEX idx_author (author(100));
 
+-- 章节查询优化索引
+-- Used by: chapter index (table of contents) and reader prefetch range query
+ALTER TABLE chapters ADD INDEX idx_book_order (book_id, order_num);
+
 -- Note: Run these commands one by one in production to avoid long table locks
 -- For large tables, consider using pt-online-schema-change or gh-ost
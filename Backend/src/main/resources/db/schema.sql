@@ -104,6 +104,7 @@ CREATE TABLE `chapters` (
   `order_num` int(11) DEFAULT 0 COMMENT 'Order Number',
   PRIMARY KEY (`id`),
   KEY `idx_book_id` (`book_id`),
+  KEY `idx_book_order` (`book_id`, `order_num`),
   KEY `idx_language` (`language`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Chapter Table';
 
@@ -416,3 +417,17 @@ CREATE TABLE `advertisements` (
   KEY `idx_sort_order` (`sort_order`),
   KEY `idx_target_id` (`target_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Advertisement Table';
+
+-- ----------------------------
+-- Table structure for cache_invalidation_log
+-- ----------------------------
+DROP TABLE IF EXISTS `cache_invalidation_log`;
+CREATE TABLE `cache_invalidation_log` (
+  `id` bigint(20) NOT NULL AUTO_INCREMENT,
+  `event_type` varchar(32) NOT NULL COMMENT 'all_books, book, chapters, chapter_content, home, user_entitlement',
+  `target_id` bigint(20) DEFAULT NULL COMMENT 'Book / chapter / user id, NULL for cache-wide events',
+  `source_node` varchar(64) NOT NULL COMMENT 'Node that published the event',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  PRIMARY KEY (`id`),
+  KEY `idx_created_at` (`created_at`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='Cross-node cache invalidation events';